@@ -29,6 +29,11 @@ export const petAPI = {
         return api.get(`/pets/${id}`);
     },
 
+    // Get several pet cards in one request (keeps the order of ids, max 100)
+    getPetsByIds: async (ids = []) => {
+        return api.get(`/pets/batch?ids=${ids.join(',')}`);
+    },
+
     // Create new pet with JSON (without images for now)
     createPetJson: async (petData, shelterId = null) => {
         const requestData = {
@@ -72,8 +72,9 @@ const PetCard = ({ pet }) => {
     e.target.nextSibling.style.display = 'flex';
   };
 
-  // Get first image from imageUrls or fallback to imageUrl
+  // Prefer the card-sized variant, then first image from imageUrls, then imageUrl
   const getPetImage = () => {
+    if (pet.cardImageUrl) return pet.cardImageUrl;
     if (pet.imageUrls) {
       const urls = pet.imageUrls.split(',').filter(url => url.trim());
       return urls[0] || pet.imageUrl || 'https://via.placeholder.com/400x300?text=No+Image';
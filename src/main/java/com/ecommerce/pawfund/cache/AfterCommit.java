@@ -0,0 +1,27 @@
+package com.ecommerce.pawfund.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chạy việc cập nhật cache, chỉ mục trong bộ nhớ và bộ đếm version sau khi transaction đang ghi commit.
+ * Làm trước commit thì một request đọc song song vẫn thấy dòng cũ và cache lại nó dưới version/khoá mới.
+ * Rollback thì không chạy; gọi ngoài transaction thì chạy ngay.
+ * Không gọi lồng bên trong một task đã đăng ký: lúc afterCommit, synchronization mới đăng ký sẽ không được chạy.
+ */
+public final class AfterCommit {
+    private AfterCommit() {}
+
+    public static void run(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.pawfund.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ đếm phiên bản cho cả danh sách pet / event, tăng sau mỗi lần ghi.
+ * ETag của trang danh sách lấy từ bộ đếm nên If-None-Match được trả lời mà không cần truy vấn.
+ * Bộ đếm nằm trong bộ nhớ của một instance, epoch (thời điểm khởi động) tránh trùng ETag sau khi restart.
+ */
+@Component
+public class CatalogVersion {
+    public enum Scope { PETS, EVENTS }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong[] counters = { new AtomicLong(), new AtomicLong() };
+    // Chưa biết lần ghi cuối trước khi khởi động nên lấy thời điểm khởi động
+    private final long[] lastModified = { now(), now() };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void changed(Scope scope) {
+        synchronized (lastModified) {
+            counters[scope.ordinal()].incrementAndGet();
+            lastModified[scope.ordinal()] = now();
+        }
+    }
+
+    public String etag(Scope scope) {
+        return "\"" + scope.name().toLowerCase() + "-" + epoch + "-" + counters[scope.ordinal()].get() + "\"";
+    }
+
+    public long lastModified(Scope scope) {
+        synchronized (lastModified) {
+            return lastModified[scope.ordinal()];
+        }
+    }
+
+    // Dữ liệu hiển thị kèm pet đổi (ảnh) mà không qua IPetService.save: tăng version của pet đó.
+    // Nơi gọi tự gọi changed(PETS) sau commit (AfterCommit)
+    public void touchPet(Long petId) {
+        jdbcTemplate.update("UPDATE pets SET version = COALESCE(version, 0) + 1, updated_at = ? WHERE id = ?",
+            Timestamp.valueOf(LocalDateTime.now()), petId);
+    }
+
+    // Thông tin shelter nằm trong response của pet, sửa shelter thì tăng version các pet của shelter
+    public void touchShelterPets(Long shelterId) {
+        jdbcTemplate.update("UPDATE pets SET version = COALESCE(version, 0) + 1, updated_at = ? WHERE shelter_id = ?",
+            Timestamp.valueOf(LocalDateTime.now()), shelterId);
+        changed(Scope.PETS);
+    }
+
+    // Tăng version của một pet/event ngay trong DB và đọc lại giá trị mới. Gọi trong transaction đang lưu dòng đó:
+    // UPDATE giữ khoá dòng tới khi commit nên hai lần lưu đồng thời không thể ra cùng một version
+    public Long nextVersion(Scope scope, Long id) {
+        String table = scope == Scope.PETS ? "pets" : "events";
+        jdbcTemplate.update("UPDATE " + table + " SET version = COALESCE(version, 0) + 1 WHERE id = ?", id);
+        return jdbcTemplate.queryForObject("SELECT version FROM " + table + " WHERE id = ?", Long.class, id);
+    }
+
+    // Last-Modified chỉ có độ chính xác tới giây
+    private static long now() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.pawfund.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * GET có điều kiện cho các endpoint public đọc nhiều (pet, event).
+ * ETag/Last-Modified được kiểm tra trước khi gọi supplier, khớp thì trả 304 không tải dữ liệu.
+ * Cache-Control cấu hình được để reverse proxy / CDN giữ response (s-maxage).
+ */
+@Component
+public class HttpCachePolicy {
+    private final boolean enabled;
+    private final CacheControl cacheControl;
+
+    public HttpCachePolicy(@Value("${pawfund.http-cache.enabled:true}") boolean enabled,
+                           @Value("${pawfund.http-cache.max-age:0}") long maxAgeSeconds,
+                           @Value("${pawfund.http-cache.s-maxage:60}") long sharedMaxAgeSeconds,
+                           @Value("${pawfund.http-cache.stale-while-revalidate:30}") long staleWhileRevalidateSeconds) {
+        this.enabled = enabled;
+        CacheControl cc = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+        if (sharedMaxAgeSeconds > 0) cc = cc.sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds));
+        if (staleWhileRevalidateSeconds > 0) cc = cc.staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds));
+        this.cacheControl = cc;
+    }
+
+    /**
+     * lastModifiedMillis = -1 nếu không có. Response lỗi (404, 400, ...) giữ nguyên, không thêm header cache.
+     */
+    public ResponseEntity<?> respond(WebRequest request, String etag, long lastModifiedMillis,
+                                     Supplier<? extends ResponseEntity<?>> loader) {
+        if (!enabled) return loader.get();
+        // checkNotModified cũng ghi ETag/Last-Modified vào response cho trường hợp 200
+        if (request.checkNotModified(etag, lastModifiedMillis)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        ResponseEntity<?> response = loader.get();
+        if (!response.getStatusCode().is2xxSuccessful()) return response;
+        return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .cacheControl(cacheControl)
+            .body(response.getBody());
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.pawfund.cache;
+
+import com.ecommerce.pawfund.dto.PetResponseDTO;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache LRU theo id cho thẻ pet (cart, GET /api/pets/batch): id nào chưa có thì nạp cả nhóm
+ * bằng một câu IN. Xoá theo id khi pet hoặc ảnh của pet đổi, xoá hết khi thông tin shelter đổi.
+ * Như PetQueryCache, DTO trong cache dùng chung, nơi gọi không được sửa.
+ */
+@Component
+public class PetCardCache {
+    private final boolean enabled;
+    private final LinkedHashMap<Long, PetResponseDTO> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Tăng mỗi lần có ghi, để bỏ kết quả được nạp song song với một lần ghi
+    private long writeVersion;
+
+    public PetCardCache(@Value("${pawfund.cache.pet-cards.enabled:true}") boolean enabled,
+                        @Value("${pawfund.cache.pet-cards.max-entries:5000}") int maxEntries,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PetResponseDTO> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        FunctionCounter.builder("pawfund.cache.pet_cards.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.cache.pet_cards.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("pawfund.cache.pet_cards.size", this, PetCardCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Kết quả cùng thứ tự với ids, bỏ qua id không tồn tại. loader nhận các id còn thiếu và
+     * trả về thẻ của chúng (thứ tự tuỳ ý).
+     */
+    public List<PetResponseDTO> getAll(List<Long> ids, Function<List<Long>, List<PetResponseDTO>> loader) {
+        if (!enabled) return loader.apply(ids);
+        Map<Long, PetResponseDTO> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long startVersion;
+        synchronized (entries) {
+            startVersion = writeVersion;
+            for (Long id : ids) {
+                if (id == null || found.containsKey(id)) continue;
+                PetResponseDTO card = entries.get(id);
+                if (card != null) {
+                    found.put(id, card);
+                } else if (!missing.contains(id)) {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        misses.addAndGet(missing.size());
+
+        if (!missing.isEmpty()) {
+            List<PetResponseDTO> loaded = loader.apply(missing);
+            synchronized (entries) {
+                boolean fresh = writeVersion == startVersion;
+                for (PetResponseDTO card : loaded) {
+                    found.put(card.getId(), card);
+                    if (fresh) entries.put(card.getId(), card);
+                }
+            }
+        }
+
+        List<PetResponseDTO> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PetResponseDTO card = id != null ? found.get(id) : null;
+            if (card != null) ordered.add(card);
+        }
+        return ordered;
+    }
+
+    public void evict(Long petId) {
+        if (!enabled || petId == null) return;
+        synchronized (entries) {
+            writeVersion++;
+            entries.remove(petId);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            writeVersion++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
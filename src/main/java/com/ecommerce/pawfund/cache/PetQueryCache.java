@@ -0,0 +1,170 @@
+package com.ecommerce.pawfund.cache;
+
+import com.ecommerce.pawfund.dto.PetResponseDTO;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache LRU có giới hạn cho kết quả lọc pet (GET /api/pets).
+ * - Nhiều request cùng miss một khoá chỉ tính một lần (các request sau chờ cùng CompletableFuture).
+ * - Khi một pet thay đổi, chỉ xoá các mục có trang chứa pet đó hoặc có bộ lọc khớp
+ *   trạng thái trước/sau của pet.
+ * - invalidate/evict/clear phải gọi sau khi transaction ghi pet đã commit (AfterCommit): gọi trước commit thì
+ *   lookup bắt đầu sau lần xoá nhưng trước commit đọc dòng cũ và cache lại, không bao giờ bị xoá nữa.
+ * Các DTO trong cache dùng chung giữa các request, nơi gọi không được sửa chúng.
+ */
+@Component
+public class PetQueryCache {
+    private final boolean enabled;
+    private final int maxEntries;
+    private final LinkedHashMap<PetQueryKey, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    // Tăng mỗi lần invalidate/evict/clear: kết quả bắt đầu tính trước lần đó có thể đã đọc dòng cũ nên không được cache
+    private long writeVersion;
+
+    public PetQueryCache(@Value("${pawfund.cache.pets.enabled:true}") boolean enabled,
+                         @Value("${pawfund.cache.pets.max-entries:1000}") int maxEntries,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PetQueryKey, Entry> eldest) {
+                if (size() > PetQueryCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        FunctionCounter.builder("pawfund.cache.pets.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.cache.pets.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.cache.pets.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.cache.pets.invalidations", invalidations, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("pawfund.cache.pets.size", this, PetQueryCache::size).register(meterRegistry);
+    }
+
+    public Page<PetResponseDTO> get(PetQueryKey key, Supplier<Page<PetResponseDTO>> loader) {
+        if (!enabled) return loader.get();
+        Entry entry;
+        boolean owner = false;
+        long startVersion;
+        synchronized (entries) {
+            startVersion = writeVersion;
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                owner = true;
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+        }
+        if (!owner) return join(entry.result);
+
+        try {
+            Page<PetResponseDTO> page = loader.get();
+            Set<Long> petIds = new HashSet<>();
+            for (PetResponseDTO pet : page) petIds.add(pet.getId());
+            synchronized (entries) {
+                entry.petIds = petIds;
+                if (writeVersion != startVersion) entries.remove(key, entry);
+            }
+            entry.result.complete(page);
+            return page;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gọi sau khi lần tạo/sửa/xoá pet đã commit. before = null khi tạo mới, after = null khi xoá.
+     */
+    public void invalidate(PetSnapshot before, PetSnapshot after) {
+        if (!enabled) return;
+        Long petId = before != null ? before.id() : after != null ? after.id() : null;
+        synchronized (entries) {
+            writeVersion++;
+            Iterator<Map.Entry<PetQueryKey, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<PetQueryKey, Entry> e = it.next();
+                Set<Long> petIds = e.getValue().petIds;
+                boolean onPage = petIds != null && petId != null && petIds.contains(petId);
+                if (onPage || e.getKey().mayMatch(before) || e.getKey().mayMatch(after)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Chỉ nội dung hiển thị của pet đổi (vd. ảnh bìa), bộ lọc không đổi: xoá các trang chứa pet đó.
+     */
+    public void evict(Long petId) {
+        if (!enabled || petId == null) return;
+        synchronized (entries) {
+            writeVersion++;
+            Iterator<Map.Entry<PetQueryKey, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Set<Long> petIds = it.next().getValue().petIds;
+                if (petIds != null && petIds.contains(petId)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            writeVersion++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Page<PetResponseDTO> join(CompletableFuture<Page<PetResponseDTO>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Page<PetResponseDTO>> result = new CompletableFuture<>();
+        // null khi kết quả còn đang được tính
+        Set<Long> petIds;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.pawfund.cache;
+
+import com.ecommerce.pawfund.search.TextNormalizer;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Khoá cache của GET /api/pets: bộ lọc đã chuẩn hoá + trang. Chuỗi rỗng coi như không lọc,
+ * giống PetServiceImpl.
+ */
+public record PetQueryKey(String status, String breed, String search, Integer age, String location,
+                          Integer ageMin, Integer ageMax, String gender, int page, int size) {
+
+    public static PetQueryKey of(String status, String breed, String search, Integer age, String location,
+                                 Integer ageMin, Integer ageMax, String gender, int page, int size) {
+        return new PetQueryKey(upper(status), lower(breed), lower(search), age, lower(location),
+                               ageMin, ageMax, upper(gender), page, size);
+    }
+
+    /**
+     * Pet có thể nằm trong kết quả của bộ lọc này không. Phần search được kiểm tra rộng hơn
+     * thực tế (chỉ cần mọi từ xuất hiện trong văn bản đã bỏ dấu), nên có thể xoá thừa nhưng không sót.
+     */
+    public boolean mayMatch(PetSnapshot pet) {
+        if (pet == null) return false;
+        if (status != null && !status.equalsIgnoreCase(pet.status())) return false;
+        if (gender != null && !gender.equalsIgnoreCase(pet.gender())) return false;
+        if (age != null || ageMin != null || ageMax != null) {
+            if (pet.age() == null) return false;
+            if (age != null && !age.equals(pet.age())) return false;
+            if (ageMin != null && pet.age() < ageMin) return false;
+            if (ageMax != null && pet.age() > ageMax) return false;
+        }
+        if (breed != null && (pet.breed() == null || !pet.breed().toLowerCase(Locale.ROOT).contains(breed))) return false;
+        if (location != null && (pet.location() == null || !pet.location().toLowerCase(Locale.ROOT).contains(location))) return false;
+        if (search != null) {
+            String text = TextNormalizer.fold(pet.name() + " " + pet.breed() + " " + pet.location() + " " + pet.description());
+            List<String> tokens = TextNormalizer.tokens(search);
+            for (String token : tokens) {
+                if (!text.contains(token)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static String upper(String value) {
+        return value == null || value.isEmpty() ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    private static String lower(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.pawfund.cache;
+
+import com.ecommerce.pawfund.entity.Pet;
+
+/**
+ * Các trường của pet mà bộ lọc catalog dùng tới, chụp lại trước và sau khi ghi
+ * để biết kết quả cache nào bị ảnh hưởng.
+ */
+public record PetSnapshot(Long id, String status, String gender, Integer age,
+                          String breed, String location, String name, String description, Long version) {
+
+    public static PetSnapshot of(Pet pet) {
+        if (pet == null) return null;
+        return new PetSnapshot(
+            pet.getId(),
+            pet.getStatus() != null ? pet.getStatus().name() : null,
+            pet.getGender() != null ? pet.getGender().name() : null,
+            pet.getAge(),
+            pet.getBreed(),
+            pet.getLocation(),
+            pet.getName(),
+            pet.getDescription(),
+            pet.getVersion()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.pawfund.cache;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * version + updated_at của một dòng, đọc riêng (không tải entity) để trả lời If-None-Match.
+ * Dòng cũ trước khi có hai cột này có giá trị null.
+ */
+public record VersionStamp(Long version, LocalDateTime updatedAt) {
+
+    // ETag mạnh cho trang chi tiết, vd. "pet-12-v3"
+    public String etag(String kind, Long id) {
+        return "\"" + kind + "-" + id + "-v" + (version != null ? version : 0) + "\"";
+    }
+
+    // -1 = không có Last-Modified
+    public long lastModifiedMillis() {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.pawfund.cart;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Nơi giữ cart của khách chưa đăng nhập (khoá theo token UUID). Chọn bằng pawfund.guest-cart.store:
+ * memory (mặc định, ghi DB ở nền) hoặc jpa (ghi thẳng bảng guest_carts mỗi lần sửa như trước).
+ * Danh sách trả về là bản sao, giữ thứ tự thêm vào.
+ */
+public interface GuestCartStore {
+
+    // Cart chưa có hoặc đã hết hạn thì rỗng
+    Optional<List<Long>> find(String token);
+
+    // Tạo cart nếu chưa có; pet đã có thì giữ nguyên
+    List<Long> add(String token, Long petId);
+
+    // Rỗng nếu không có cart
+    Optional<List<Long>> remove(String token, Long petId);
+
+    // Lấy ra và xoá cart (merge vào cart của user khi đăng nhập)
+    Optional<List<Long>> take(String token);
+}
@@ -0,0 +1,293 @@
+package com.ecommerce.pawfund.cart;
+
+import com.ecommerce.pawfund.entity.GuestCart;
+import com.ecommerce.pawfund.entity.GuestCartItem;
+import com.ecommerce.pawfund.repository.GuestCartItemRepository;
+import com.ecommerce.pawfund.repository.GuestCartRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cart của khách giữ trong bộ nhớ, thêm/xoá không ghi DB đồng bộ.
+ * - TTL trượt: mỗi lần đọc/ghi gia hạn, cart không ai đụng tới quá ttl thì bị xoá (cả trong DB).
+ * - Khoá theo dải (token -> một trong STRIPES lock): hai request cùng token không ghi đè nhau,
+ *   token khác dải chạy song song.
+ * - Write-behind: định kỳ ghi các cart đã đổi và xoá các cart đã bỏ trong guest_carts,
+ *   lúc tắt ứng dụng ghi nốt; lúc khởi động nạp lại các cart còn hạn từ DB.
+ *   Item ghi theo chênh lệch so với lần flush trước: chỉ DELETE pet đã bỏ và INSERT pet mới thêm.
+ * Thay đổi trong khoảng flush-interval cuối cùng có thể mất nếu tiến trình chết đột ngột.
+ * Chỉ đúng khi chạy một instance (hoặc sticky session theo token).
+ */
+@Component
+@ConditionalOnProperty(name = "pawfund.guest-cart.store", havingValue = "memory", matchIfMissing = true)
+@DependsOn("legacyCartItemMigration") // dòng guest_cart_pet_ids cũ phải sang guest_cart_items trước khi load()
+public class InMemoryGuestCartStore implements GuestCartStore {
+    private static final int STRIPES = 64;
+
+    private final GuestCartRepository guestCartRepository;
+    private final GuestCartItemRepository guestCartItemRepository;
+    private final long ttlMillis;
+    private final Map<String, Cart> carts = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    // Token cần ghi / cần xoá ở lần flush tới
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong flushedCarts = new AtomicLong();
+    private final AtomicLong expiredCarts = new AtomicLong();
+
+    public InMemoryGuestCartStore(GuestCartRepository guestCartRepository,
+                                  GuestCartItemRepository guestCartItemRepository,
+                                  @Value("${pawfund.guest-cart.ttl-hours:72}") long ttlHours,
+                                  MeterRegistry meterRegistry) {
+        this.guestCartRepository = guestCartRepository;
+        this.guestCartItemRepository = guestCartItemRepository;
+        this.ttlMillis = Duration.ofHours(ttlHours).toMillis();
+        for (int i = 0; i < STRIPES; i++) locks[i] = new Object();
+        Gauge.builder("pawfund.guest_cart.size", carts, Map::size).register(meterRegistry);
+        Gauge.builder("pawfund.guest_cart.dirty", dirty, Set::size).register(meterRegistry);
+        FunctionCounter.builder("pawfund.guest_cart.flushed", flushedCarts, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.guest_cart.expired", expiredCarts, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Override
+    public Optional<List<Long>> find(String token) {
+        synchronized (lockFor(token)) {
+            Cart cart = live(token, System.currentTimeMillis());
+            return cart == null ? Optional.empty() : Optional.of(new ArrayList<>(cart.petIds));
+        }
+    }
+
+    @Override
+    public List<Long> add(String token, Long petId) {
+        synchronized (lockFor(token)) {
+            long now = System.currentTimeMillis();
+            Cart cart = live(token, now);
+            if (cart == null) {
+                cart = new Cart(LocalDateTime.now(), now);
+                carts.put(token, cart);
+                removed.remove(token);
+            }
+            if (!cart.petIds.contains(petId)) cart.petIds.add(petId);
+            cart.updatedAt = LocalDateTime.now();
+            dirty.add(token);
+            return new ArrayList<>(cart.petIds);
+        }
+    }
+
+    @Override
+    public Optional<List<Long>> remove(String token, Long petId) {
+        synchronized (lockFor(token)) {
+            Cart cart = live(token, System.currentTimeMillis());
+            if (cart == null) return Optional.empty();
+            if (cart.petIds.remove(petId)) {
+                cart.updatedAt = LocalDateTime.now();
+                dirty.add(token);
+            }
+            return Optional.of(new ArrayList<>(cart.petIds));
+        }
+    }
+
+    @Override
+    public Optional<List<Long>> take(String token) {
+        synchronized (lockFor(token)) {
+            Cart cart = live(token, System.currentTimeMillis());
+            if (cart == null) return Optional.empty();
+            drop(token);
+            return Optional.of(new ArrayList<>(cart.petIds));
+        }
+    }
+
+    /**
+     * Ghi dòng guest_carts của các cart đã đổi bằng một saveAll rồi đồng bộ item từng cart,
+     * xoá các cart đã bỏ/hết hạn. Lỗi DB thì giữ token lại cho lần sau.
+     */
+    @Scheduled(fixedDelayString = "${pawfund.guest-cart.flush-interval-ms:10000}",
+               initialDelayString = "${pawfund.guest-cart.flush-interval-ms:10000}")
+    public void flush() {
+        expire(System.currentTimeMillis());
+
+        List<String> toDelete = drain(removed);
+        if (!toDelete.isEmpty()) {
+            try {
+                guestCartItemRepository.clearAll(toDelete);
+                guestCartRepository.deleteAllById(toDelete);
+            } catch (RuntimeException e) {
+                System.err.println("Guest cart delete failed, retrying later: " + e.getMessage());
+                removed.addAll(toDelete);
+            }
+        }
+
+        List<String> tokens = drain(dirty);
+        if (tokens.isEmpty()) return;
+        List<GuestCart> snapshots = new ArrayList<>(tokens.size());
+        Map<String, List<Long>> items = new HashMap<>();
+        Map<String, Cart> flushed = new HashMap<>();
+        for (String token : tokens) {
+            synchronized (lockFor(token)) {
+                Cart cart = carts.get(token);
+                if (cart == null) continue;
+                GuestCart snapshot = new GuestCart();
+                snapshot.setToken(token);
+                snapshot.setCreatedAt(cart.createdAt);
+                snapshot.setUpdatedAt(cart.updatedAt);
+                snapshots.add(snapshot);
+                items.put(token, new ArrayList<>(cart.petIds));
+                flushed.put(token, cart);
+            }
+        }
+        try {
+            guestCartRepository.saveAll(snapshots);
+            items.forEach((token, petIds) -> syncItems(token, petIds, flushed.get(token).persisted));
+            items.forEach((token, petIds) -> markPersisted(token, flushed.get(token), petIds));
+            flushedCarts.addAndGet(snapshots.size());
+        } catch (RuntimeException e) {
+            System.err.println("Guest cart flush failed, retrying later: " + e.getMessage());
+            dirty.addAll(tokens);
+        }
+    }
+
+    // Nạp khi khởi tạo bean, trước khi server nhận request: add() chạy trước lúc nạp sẽ tạo cart mới
+    // (persisted = null) mà putIfAbsent bỏ qua bản trong DB, lần flush đầu retainOnly xoá mất item cũ
+    @PostConstruct
+    public void load() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(ttlMillis));
+        try {
+            guestCartItemRepository.deleteForCartsUpdatedBefore(cutoff);
+            long deleted = guestCartRepository.deleteByUpdatedAtBefore(cutoff);
+            List<GuestCart> live = guestCartRepository.findUpdatedSince(cutoff);
+            Map<String, List<Long>> items = new HashMap<>();
+            if (!live.isEmpty()) {
+                for (GuestCartItem item : guestCartItemRepository.findByTokens(live.stream().map(GuestCart::getToken).toList())) {
+                    items.computeIfAbsent(item.getToken(), t -> new ArrayList<>()).add(item.getPetId());
+                }
+            }
+            int loaded = 0;
+            for (GuestCart stored : live) {
+                LocalDateTime updatedAt = stored.getUpdatedAt();
+                // Hạn tính từ lần ghi cuối, lần đọc trước khi tắt không được lưu
+                Cart cart = new Cart(stored.getCreatedAt(), updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                cart.petIds.addAll(items.getOrDefault(stored.getToken(), List.of()));
+                cart.persisted = new ArrayList<>(cart.petIds);
+                cart.updatedAt = updatedAt;
+                carts.putIfAbsent(stored.getToken(), cart);
+                loaded++;
+            }
+            System.out.println("Loaded " + loaded + " guest carts, removed " + deleted + " expired");
+        } catch (RuntimeException e) {
+            System.err.println("Could not load guest carts: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Cart thường chỉ đổi một hai pet giữa hai lần flush: số câu lệnh theo số pet thay đổi, không theo cỡ cart
+    private void syncItems(String token, List<Long> petIds, List<Long> persisted) {
+        if (petIds.isEmpty()) {
+            if (persisted == null || !persisted.isEmpty()) guestCartItemRepository.clear(token);
+            return;
+        }
+        if (persisted == null || !petIds.containsAll(persisted)) guestCartItemRepository.retainOnly(token, petIds);
+        for (Long petId : petIds) {
+            if (persisted == null || !persisted.contains(petId)) guestCartItemRepository.addItem(token, petId);
+        }
+    }
+
+    // Cart đã bị bỏ (hoặc tạo lại cùng token) trong lúc flush thì không đụng tới
+    private void markPersisted(String token, Cart cart, List<Long> petIds) {
+        synchronized (lockFor(token)) {
+            if (carts.get(token) == cart) cart.persisted = petIds;
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<String, Cart>> it = carts.entrySet().iterator();
+        while (it.hasNext()) {
+            String token = it.next().getKey();
+            synchronized (lockFor(token)) {
+                Cart cart = carts.get(token);
+                if (cart != null && isExpired(cart, now)) {
+                    drop(token);
+                    expiredCarts.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Gọi khi đang giữ lock của token; cart hết hạn thì bỏ luôn
+    private Cart live(String token, long now) {
+        Cart cart = carts.get(token);
+        if (cart == null) return null;
+        if (isExpired(cart, now)) {
+            drop(token);
+            expiredCarts.incrementAndGet();
+            return null;
+        }
+        cart.lastAccess = now;
+        return cart;
+    }
+
+    private void drop(String token) {
+        carts.remove(token);
+        dirty.remove(token);
+        removed.add(token);
+    }
+
+    private boolean isExpired(Cart cart, long now) {
+        return now - cart.lastAccess > ttlMillis;
+    }
+
+    private Object lockFor(String token) {
+        return locks[(token.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static List<String> drain(Set<String> tokens) {
+        List<String> drained = new ArrayList<>();
+        for (Iterator<String> it = tokens.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static final class Cart {
+        final List<Long> petIds = new ArrayList<>();
+        // Các pet đang có trong guest_cart_items theo lần flush thành công gần nhất, không sửa tại chỗ.
+        // null với cart mới tạo: token có thể vừa bị bỏ và còn item cũ trong DB, flush đầu đồng bộ toàn bộ
+        List<Long> persisted;
+        final LocalDateTime createdAt;
+        LocalDateTime updatedAt;
+        // Cập nhật trong lock, đọc bởi expire() cũng trong lock
+        long lastAccess;
+
+        Cart(LocalDateTime createdAt, long lastAccess) {
+            this.createdAt = createdAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
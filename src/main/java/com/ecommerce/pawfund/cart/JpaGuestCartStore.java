@@ -0,0 +1,63 @@
+package com.ecommerce.pawfund.cart;
+
+import com.ecommerce.pawfund.entity.GuestCart;
+import com.ecommerce.pawfund.repository.GuestCartItemRepository;
+import com.ecommerce.pawfund.repository.GuestCartRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Ghi thẳng DB mỗi lần thêm/xoá, như trước khi có InMemoryGuestCartStore; mỗi thao tác chỉ đụng một dòng item
+@Component
+@ConditionalOnProperty(name = "pawfund.guest-cart.store", havingValue = "jpa")
+public class JpaGuestCartStore implements GuestCartStore {
+    @Autowired
+    private GuestCartRepository guestCartRepository;
+    @Autowired
+    private GuestCartItemRepository guestCartItemRepository;
+
+    @Override
+    public Optional<List<Long>> find(String token) {
+        if (!guestCartRepository.existsById(token)) return Optional.empty();
+        return Optional.of(guestCartItemRepository.findPetIds(token));
+    }
+
+    @Override
+    public List<Long> add(String token, Long petId) {
+        GuestCart cart = guestCartRepository.findById(token).orElseGet(() -> {
+            GuestCart c = new GuestCart();
+            c.setToken(token);
+            c.setCreatedAt(LocalDateTime.now());
+            return c;
+        });
+        cart.setUpdatedAt(LocalDateTime.now());
+        guestCartRepository.save(cart);
+        guestCartItemRepository.addItem(token, petId);
+        return guestCartItemRepository.findPetIds(token);
+    }
+
+    @Override
+    public Optional<List<Long>> remove(String token, Long petId) {
+        Optional<GuestCart> cartOpt = guestCartRepository.findById(token);
+        if (cartOpt.isEmpty()) return Optional.empty();
+        GuestCart cart = cartOpt.get();
+        cart.setUpdatedAt(LocalDateTime.now());
+        guestCartRepository.save(cart);
+        guestCartItemRepository.removeItem(token, petId);
+        return Optional.of(guestCartItemRepository.findPetIds(token));
+    }
+
+    @Override
+    public Optional<List<Long>> take(String token) {
+        if (!guestCartRepository.existsById(token)) return Optional.empty();
+        List<Long> petIds = guestCartItemRepository.findPetIds(token);
+        guestCartItemRepository.clear(token);
+        guestCartRepository.deleteById(token);
+        return Optional.of(petIds);
+    }
+}
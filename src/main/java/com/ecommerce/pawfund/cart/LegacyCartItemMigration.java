@@ -0,0 +1,45 @@
+package com.ecommerce.pawfund.cart;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chuyển dữ liệu cũ: bảng @ElementCollection user_cart_pet_ids / guest_cart_pet_ids thành các dòng
+ * user_cart_items / guest_cart_items rồi xoá dòng cũ. Chạy lúc khởi tạo bean, sau khi Hibernate (ddl-auto)
+ * đã tạo bảng mới và trước khi InMemoryGuestCartStore nạp cart (store @DependsOn bean này): chạy muộn hơn thì
+ * cart cũ nạp ra rỗng và lần flush/take sau đó xoá luôn các dòng vừa chuyển.
+ * Chạy lại nhiều lần vẫn an toàn (ON CONFLICT bỏ qua pet đã chuyển).
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class LegacyCartItemMigration {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        migrate("user_cart_pet_ids",
+            "INSERT INTO user_cart_items (user_cart_id, pet_id, added_at) " +
+            "SELECT user_cart_id, pet_ids, now() FROM user_cart_pet_ids WHERE pet_ids IS NOT NULL ORDER BY ctid " +
+            "ON CONFLICT (user_cart_id, pet_id) DO NOTHING");
+        migrate("guest_cart_pet_ids",
+            "INSERT INTO guest_cart_items (guest_cart_token, pet_id, added_at) " +
+            "SELECT guest_cart_token, pet_ids, now() FROM guest_cart_pet_ids WHERE pet_ids IS NOT NULL ORDER BY ctid " +
+            "ON CONFLICT (guest_cart_token, pet_id) DO NOTHING");
+    }
+
+    private void migrate(String legacyTable, String copySql) {
+        try {
+            Integer pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + legacyTable, Integer.class);
+            if (pending == null || pending == 0) return;
+            int copied = jdbcTemplate.update(copySql);
+            jdbcTemplate.update("DELETE FROM " + legacyTable);
+            System.out.println("Migrated " + copied + " of " + pending + " rows from " + legacyTable);
+        } catch (Exception e) {
+            // DB mới không có bảng cũ
+        }
+    }
+}
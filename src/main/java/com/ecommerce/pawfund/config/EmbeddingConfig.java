@@ -0,0 +1,28 @@
+package com.ecommerce.pawfund.config;
+
+import com.ecommerce.pawfund.embedding.EmbeddingProvider;
+import com.ecommerce.pawfund.embedding.HashingEmbeddingProvider;
+import com.ecommerce.pawfund.embedding.SpringAiEmbeddingProvider;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EmbeddingConfig {
+
+    // local: hashing tất định, không cần model; spring-ai: EmbeddingModel của Spring AI (PostgresML)
+    @Bean
+    public EmbeddingProvider embeddingProvider(@Value("${pawfund.embedding.provider:local}") String provider,
+                                               @Value("${pawfund.embedding.local-dimensions:256}") int localDimensions,
+                                               ObjectProvider<EmbeddingModel> embeddingModel) {
+        if ("spring-ai".equalsIgnoreCase(provider)) {
+            EmbeddingModel model = embeddingModel.getIfAvailable();
+            if (model != null) return new SpringAiEmbeddingProvider(model);
+            System.err.println("No Spring AI EmbeddingModel configured, using local hashing embeddings");
+        }
+        return new HashingEmbeddingProvider(localDimensions);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.pawfund.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Bật @Scheduled cho các worker nền (xoá ảnh, ...)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
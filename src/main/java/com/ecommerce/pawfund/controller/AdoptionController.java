@@ -11,14 +11,17 @@ import java.util.ArrayList;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import com.ecommerce.pawfund.dto.AdoptionRequestDTO;
+import com.ecommerce.pawfund.dto.CursorPage;
 import com.ecommerce.pawfund.entity.Pet;
 import com.ecommerce.pawfund.entity.User;
 import com.ecommerce.pawfund.service.inter.IAdoptionService;
+import com.ecommerce.pawfund.service.inter.IPetImageService;
 import com.ecommerce.pawfund.service.inter.IPetService;
 import com.ecommerce.pawfund.service.inter.IUserService;
 import com.ecommerce.pawfund.entity.AdoptionTestResult;
 import com.ecommerce.pawfund.repository.AdoptionTestResultRepository;
 import com.ecommerce.pawfund.entity.UserCart;
+import com.ecommerce.pawfund.repository.UserCartItemRepository;
 import com.ecommerce.pawfund.repository.UserCartRepository;
 import java.util.Map;
 import java.util.HashMap;
@@ -45,6 +48,22 @@ public class AdoptionController {
     @Autowired
     private UserCartRepository userCartRepository;
 
+    @Autowired
+    private UserCartItemRepository userCartItemRepository;
+
+    @Autowired
+    private IPetImageService petImageService;
+
+    // imageUrls của pet nằm ở bảng pet_images, gắn cho cả danh sách bằng một câu truy vấn
+    private List<Adoption> withPetImages(List<Adoption> adoptions) {
+        List<Pet> pets = new ArrayList<>();
+        for (Adoption adoption : adoptions) {
+            if (adoption.getPet() != null) pets.add(adoption.getPet());
+        }
+        petImageService.attachImages(pets);
+        return adoptions;
+    }
+
     @GetMapping
     public List<Adoption> getAllApplications(@RequestParam(required = false) Long userId,
                                                        @RequestParam(required = false) Long petId,
@@ -57,11 +76,11 @@ public class AdoptionController {
         // Nếu có userId parameter, trả về adoptions của user đó (cho admin/shelter)
         if (userId != null) {
             System.out.println("Returning adoptions for userId: " + userId);
-            return adoptionService.findByUserId(userId);
+            return withPetImages(adoptionService.findByUserId(userId));
         }
         if (petId != null) {
             System.out.println("Returning adoptions for petId: " + petId);
-            return adoptionService.findByPetId(petId);
+            return withPetImages(adoptionService.findByPetId(petId));
         }
         
         // Nếu không có parameter, trả về adoptions của user hiện tại
@@ -74,7 +93,7 @@ public class AdoptionController {
                 System.out.println("Current user ID: " + currentUser.getId());
                 List<Adoption> userAdoptions = adoptionService.findByUserId(currentUser.getId());
                 System.out.println("Found " + userAdoptions.size() + " adoptions for current user");
-                return userAdoptions;
+                return withPetImages(userAdoptions);
             }
         }
         
@@ -85,6 +104,7 @@ public class AdoptionController {
     @GetMapping("/{id}")
     public ResponseEntity<Adoption> getApplicationById(@PathVariable Long id) {
         Optional<Adoption> app = adoptionService.findById(id);
+        app.ifPresent(a -> withPetImages(List.of(a)));
         return app.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -151,9 +171,10 @@ public class AdoptionController {
             }
             
             UserCart userCart = userCartRepository.findByUserId(user.getId()).orElse(null);
-            System.out.println("UserCart found: " + (userCart != null ? userCart.getPetIds().size() + " pets" : "null"));
+            List<Long> cartPetIds = userCart == null ? List.of() : userCartItemRepository.findPetIds(userCart.getId());
+            System.out.println("UserCart found: " + (userCart != null ? cartPetIds.size() + " pets" : "null"));
             
-            if (userCart == null || userCart.getPetIds().isEmpty()) {
+            if (cartPetIds.isEmpty()) {
                 return ResponseEntity.badRequest().body("Cart is empty");
             }
             
@@ -168,11 +189,9 @@ public class AdoptionController {
             StringBuilder summary = new StringBuilder();
             summary.append("Bạn đã gửi đơn xin nhận nuôi cho các thú cưng sau:\n");
             
-            for (Long petId : userCart.getPetIds()) {
-                Pet pet = petService.findById(petId).orElse(null);
-                if (pet == null) continue;
-                
-                System.out.println("Creating adoption for pet: " + pet.getName() + " (ID: " + petId + ")");
+            // Tất cả pet trong cart bằng một câu IN, giữ thứ tự cart
+            for (Pet pet : petService.findPetsByIds(cartPetIds)) {
+                System.out.println("Creating adoption for pet: " + pet.getName() + " (ID: " + pet.getId() + ")");
                 System.out.println("DTO message: " + dto.getMessage());
                 
                 Adoption app = new Adoption();
@@ -229,8 +248,7 @@ public class AdoptionController {
             
             // Clear cart after successful adoption
             if (userCart != null) {
-                userCart.getPetIds().clear();
-                userCartRepository.save(userCart);
+                userCartItemRepository.clear(userCart.getId());
                 System.out.println("=== Cart cleared after adoption ===");
             }
             
@@ -322,7 +340,19 @@ public class AdoptionController {
     // Get all adoptions (for admin/shelter)
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     @GetMapping("/all")
-    public ResponseEntity<List<Adoption>> getAllAdoptions() {
+    public ResponseEntity<?> getAllAdoptions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        // Có cursor/limit thì trả về CursorPage (infinite scroll), không thì giữ danh sách đầy đủ như cũ
+        if (cursor != null || limit != null) {
+            try {
+                int pageSize = CursorPage.clampLimit(limit, 20);
+                List<Adoption> rows = adoptionService.findAfter(CursorPage.decode(cursor), pageSize + 1);
+                return ResponseEntity.ok(CursorPage.of(withPetImages(rows), pageSize, Adoption::getId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
         try {
             System.out.println("=== getAllAdoptions called ===");
             List<Adoption> adoptions = adoptionService.getAllAdoptions();
@@ -334,7 +364,7 @@ public class AdoptionController {
                 System.out.println("=== First adoption: " + adoptions.get(0).getId() + " ===");
             }
             
-            return ResponseEntity.ok(adoptions);
+            return ResponseEntity.ok(withPetImages(adoptions));
         } catch (Exception e) {
             System.err.println("=== Error in getAllAdoptions: " + e.getMessage() + " ===");
             e.printStackTrace();
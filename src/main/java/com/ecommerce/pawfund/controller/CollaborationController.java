@@ -7,6 +7,7 @@ import com.ecommerce.pawfund.repository.CollaborationRequestRepository;
 import com.ecommerce.pawfund.repository.EventRepository;
 import com.ecommerce.pawfund.repository.UserRepository;
 import com.ecommerce.pawfund.notification.NotificationService;
+import com.ecommerce.pawfund.service.inter.IEventService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -29,11 +30,14 @@ public class CollaborationController {
 
     private final NotificationService notificationService;
 
-    public CollaborationController(CollaborationRequestRepository collaborationRequestRepository, EventRepository eventRepository, UserRepository userRepository, NotificationService notificationService) {
+    private final IEventService eventService;
+
+    public CollaborationController(CollaborationRequestRepository collaborationRequestRepository, EventRepository eventRepository, UserRepository userRepository, NotificationService notificationService, IEventService eventService) {
         this.collaborationRequestRepository = collaborationRequestRepository;
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.eventService = eventService;
     }
 
     @PreAuthorize("hasRole('SHELTER')")
@@ -148,7 +152,7 @@ public class CollaborationController {
                 request.setStatus(CollaborationRequest.Status.ACCEPTED);
                 Event event = request.getEvent();
                 event.getCollaborators().add(responder);
-                eventRepository.save(event);
+                eventService.save(event);
             } else {
                 request.setStatus(CollaborationRequest.Status.REJECTED);
             }
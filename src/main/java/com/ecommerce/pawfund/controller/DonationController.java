@@ -1,5 +1,6 @@
 package com.ecommerce.pawfund.controller;
 
+import com.ecommerce.pawfund.dto.CursorPage;
 import com.ecommerce.pawfund.entity.Donation;
 import com.ecommerce.pawfund.notification.NotificationService;
 import com.ecommerce.pawfund.repository.UserRepository;
@@ -33,9 +34,20 @@ public class DonationController {
     }
 
     @GetMapping
-    public List<Donation> getAllDonations(@RequestParam(required = false) Long userId) {
-        if (userId != null) return donationService.findByUserId(userId);
-        return donationService.findAll();
+    public ResponseEntity<?> getAllDonations(@RequestParam(required = false) Long userId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        if (userId != null) return ResponseEntity.ok(donationService.findByUserId(userId));
+        if (cursor != null || limit != null) {
+            try {
+                int pageSize = CursorPage.clampLimit(limit, 20);
+                List<Donation> rows = donationService.findAfter(CursorPage.decode(cursor), pageSize + 1);
+                return ResponseEntity.ok(CursorPage.of(rows, pageSize, Donation::getId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        return ResponseEntity.ok(donationService.findAll());
     }
 
     @GetMapping("/{id}")
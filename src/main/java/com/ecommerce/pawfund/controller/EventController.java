@@ -1,5 +1,8 @@
 package com.ecommerce.pawfund.controller;
 
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.HttpCachePolicy;
+import com.ecommerce.pawfund.cache.VersionStamp;
 import com.ecommerce.pawfund.entity.Event;
 import com.ecommerce.pawfund.dto.EventDTO;
 import com.ecommerce.pawfund.service.inter.IEventService;
@@ -7,10 +10,13 @@ import com.ecommerce.pawfund.service.inter.ICloudinaryService;
 import com.ecommerce.pawfund.entity.User;
 import com.ecommerce.pawfund.repository.UserRepository;
 import com.ecommerce.pawfund.notification.NotificationService;
+import com.ecommerce.pawfund.search.FullTextSearchSupport;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +30,7 @@ import java.util.HashMap;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 
 @RestController
 @RequestMapping("/api/events")
@@ -40,12 +47,32 @@ public class EventController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private FullTextSearchSupport fullTextSearch;
+
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${pawfund.search.max-hits:5000}")
+    private int maxSearchHits;
+
     @GetMapping
-    public ResponseEntity<List<EventDTO>> getAllEvents(
+    public ResponseEntity<?> getAllEvents(
             @RequestParam(required = false) Long shelterId,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            WebRequest webRequest) {
+        // ETag theo bộ đếm phiên bản event: If-None-Match khớp thì trả 304, không tải event
+        return httpCachePolicy.respond(webRequest, catalogVersion.etag(CatalogVersion.Scope.EVENTS),
+            catalogVersion.lastModified(CatalogVersion.Scope.EVENTS),
+            () -> listEvents(shelterId, category, status, search));
+    }
+
+    private ResponseEntity<List<EventDTO>> listEvents(Long shelterId, String category, String status, String search) {
         
         List<EventDTO> events;
         if (shelterId != null) {
@@ -69,7 +96,20 @@ public class EventController {
                 .collect(Collectors.toList());
         }
         
-        if (search != null && !search.isEmpty()) {
+        List<Long> rankedIds = search != null && !search.isEmpty() && fullTextSearch.isActive()
+            ? eventService.searchIdsByFullText(search, maxSearchHits) : null;
+        if (rankedIds != null) {
+            // Giữ thứ tự theo độ liên quan của ts_rank
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < rankedIds.size(); i++) {
+                rank.put(rankedIds.get(i), i);
+            }
+            events = events.stream()
+                .filter(event -> rank.containsKey(event.getId()))
+                .sorted(Comparator.comparing((EventDTO event) -> rank.get(event.getId())))
+                .collect(Collectors.toList());
+        } else if (search != null && !search.isEmpty()) {
+            // Không có full-text, hoặc quá nhiều kết quả cho danh sách xếp hạng: lọc theo chuỗi con
             String searchLower = search.toLowerCase();
             events = events.stream()
                 .filter(event -> 
@@ -83,9 +123,13 @@ public class EventController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<EventDTO> getEventById(@PathVariable Long id) {
-        Optional<EventDTO> event = eventService.findByIdAsDTO(id);
-        return event.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> getEventById(@PathVariable Long id, WebRequest webRequest) {
+        Optional<VersionStamp> stamp = eventService.findVersionStamp(id);
+        if (stamp.isEmpty()) return ResponseEntity.notFound().build();
+        return httpCachePolicy.respond(webRequest, stamp.get().etag("event", id), stamp.get().lastModifiedMillis(), () -> {
+            Optional<EventDTO> event = eventService.findByIdAsDTO(id);
+            return event.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        });
     }
 
   
@@ -1,9 +1,9 @@
 package com.ecommerce.pawfund.controller;
 
-import com.ecommerce.pawfund.entity.GuestCart;
+import com.ecommerce.pawfund.cart.GuestCartStore;
 import com.ecommerce.pawfund.entity.User;
-import com.ecommerce.pawfund.repository.GuestCartRepository;
 import com.ecommerce.pawfund.repository.UserRepository;
+import com.ecommerce.pawfund.repository.UserCartItemRepository;
 import com.ecommerce.pawfund.repository.UserCartRepository;
 import com.ecommerce.pawfund.service.inter.IPetService;
 import com.ecommerce.pawfund.dto.PetResponseDTO;
@@ -31,12 +31,14 @@ class GuestCartResponseDTO {
 @RequestMapping("/api/guest-cart")
 public class GuestCartController {
     @Autowired
-    private GuestCartRepository guestCartRepository;
+    private GuestCartStore guestCartStore;
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private UserCartRepository userCartRepository;
     @Autowired
+    private UserCartItemRepository userCartItemRepository;
+    @Autowired
     private IPetService petService;
 
     // Thêm pet vào cart guest hoặc user
@@ -47,7 +49,8 @@ public class GuestCartController {
         Authentication authentication
     ) {
         if (petId == null) return ResponseEntity.badRequest().body("Missing petId");
-        if (!petService.findById(petId).isPresent()) {
+        // Nạp thẻ pet vào cache luôn, response cart ngay sau đó dùng lại
+        if (petService.findAllByIds(List.of(petId)).isEmpty()) {
             return ResponseEntity.badRequest().body("Pet not found");
         }
         // Nếu user đã đăng nhập, thêm vào UserCart
@@ -56,23 +59,11 @@ public class GuestCartController {
             Optional<User> userOpt = userRepository.findByUsername(username);
             if (userOpt.isEmpty()) return ResponseEntity.status(401).body("User not found");
             User user = userOpt.get();
-            UserCart userCart = userCartRepository.findByUserId(user.getId()).orElseGet(() -> {
-                UserCart c = new UserCart();
-                c.setUser(user);
-                c.setCreatedAt(LocalDateTime.now());
-                c.setPetIds(new ArrayList<>());
-                return c;
-            });
-            if (!userCart.getPetIds().contains(petId)) {
-                userCart.getPetIds().add(petId);
-            }
-            userCart.setUpdatedAt(LocalDateTime.now());
-            userCartRepository.save(userCart);
+            UserCart userCart = findOrCreateUserCart(user);
+            // Một câu INSERT ... ON CONFLICT DO NOTHING, pet đã có thì không ghi gì
+            userCartItemRepository.addItem(userCart.getId(), petId);
             // Trả về danh sách pet trong cart user
-            List<PetResponseDTO> pets = new ArrayList<>();
-            for (Long id : userCart.getPetIds()) {
-                petService.findById(id).ifPresent(pet -> pets.add(toPetResponseDTO(pet)));
-            }
+            List<PetResponseDTO> pets = petService.findAllByIds(userCartItemRepository.findPetIds(userCart.getId()));
             Map<String, Object> response = new HashMap<>();
             response.put("userId", user.getId());
             response.put("pets", pets);
@@ -82,31 +73,17 @@ public class GuestCartController {
         if (token == null || token.isEmpty()) {
             token = UUID.randomUUID().toString();
         }
-        final String finalToken = token;
-        GuestCart cart = guestCartRepository.findById(finalToken).orElseGet(() -> {
-            GuestCart c = new GuestCart();
-            c.setToken(finalToken);
-            c.setCreatedAt(LocalDateTime.now());
-            c.setPetIds(new ArrayList<>());
-            return c;
-        });
-        if (!cart.getPetIds().contains(petId)) {
-            cart.getPetIds().add(petId);
-        }
-        cart.setUpdatedAt(LocalDateTime.now());
-        guestCartRepository.save(cart);
+        List<Long> petIds = guestCartStore.add(token, petId);
         // Trả về DTO kèm token (để client lưu lại)
-        GuestCartResponseDTO response = toGuestCartResponseDTO(cart);
-        response.setToken(token);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toGuestCartResponseDTO(token, petIds));
     }
 
     // Lấy cart của guest
     @GetMapping
     public ResponseEntity<?> getCart(@RequestParam("token") String token) {
-        Optional<GuestCart> cartOpt = guestCartRepository.findById(token);
+        Optional<List<Long>> cartOpt = guestCartStore.find(token);
         if (cartOpt.isPresent()) {
-            return ResponseEntity.ok(toGuestCartResponseDTO(cartOpt.get()));
+            return ResponseEntity.ok(toGuestCartResponseDTO(token, cartOpt.get()));
         } else {
             return ResponseEntity.ok(Collections.emptyList());
         }
@@ -118,17 +95,12 @@ public class GuestCartController {
         @RequestParam("token") String token,
         @RequestParam("petId") Long petId
     ) {
-        Optional<GuestCart> cartOpt = guestCartRepository.findById(token);
+        Optional<List<Long>> cartOpt = guestCartStore.remove(token, petId);
         if (cartOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("Cart not found");
         }
         
-        GuestCart cart = cartOpt.get();
-        cart.getPetIds().remove(petId);
-        cart.setUpdatedAt(LocalDateTime.now());
-        guestCartRepository.save(cart);
-        
-        return ResponseEntity.ok(toGuestCartResponseDTO(cart));
+        return ResponseEntity.ok(toGuestCartResponseDTO(token, cartOpt.get()));
     }
 
     // Lấy cart của user đã đăng nhập
@@ -149,15 +121,13 @@ public class GuestCartController {
         User user = userOpt.get();
         System.out.println("User ID: " + user.getId());
         UserCart userCart = userCartRepository.findByUserId(user.getId()).orElse(null);
-        if (userCart == null || userCart.getPetIds().isEmpty()) {
+        List<Long> petIds = userCart == null ? List.of() : userCartItemRepository.findPetIds(userCart.getId());
+        if (petIds.isEmpty()) {
             System.out.println("User cart is null or empty");
             return ResponseEntity.ok(Collections.emptyList());
         }
-        System.out.println("User cart pet IDs: " + userCart.getPetIds());
-        List<PetResponseDTO> pets = new ArrayList<>();
-        for (Long petId : userCart.getPetIds()) {
-            petService.findById(petId).ifPresent(pet -> pets.add(toPetResponseDTO(pet)));
-        }
+        System.out.println("User cart pet IDs: " + petIds);
+        List<PetResponseDTO> pets = petService.findAllByIds(petIds);
         System.out.println("Returning " + pets.size() + " pets");
         return ResponseEntity.ok(pets);
     }
@@ -166,39 +136,23 @@ public class GuestCartController {
     @PostMapping("/merge")
     public ResponseEntity<?> mergeCart(@RequestParam("token") String token, Authentication authentication) {
         if (token == null || token.isEmpty()) return ResponseEntity.badRequest().body("Missing token");
-        Optional<GuestCart> guestCartOpt = guestCartRepository.findById(token);
-        if (guestCartOpt.isEmpty()) return ResponseEntity.ok("No guest cart to merge");
         String username = authentication.getName();
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) return ResponseEntity.status(401).body("User not found");
         User user = userOpt.get();
+        Optional<List<Long>> guestCartOpt = guestCartStore.take(token);
+        if (guestCartOpt.isEmpty()) return ResponseEntity.ok("No guest cart to merge");
 
         // Lấy hoặc tạo user cart
-        UserCart userCart = userCartRepository.findByUserId(user.getId()).orElseGet(() -> {
-            UserCart c = new UserCart();
-            c.setUser(user);
-            c.setCreatedAt(LocalDateTime.now());
-            c.setPetIds(new ArrayList<>());
-            return c;
-        });
+        UserCart userCart = findOrCreateUserCart(user);
 
-        // Merge petIds
-        List<Long> guestPetIds = guestCartOpt.get().getPetIds();
-        for (Long petId : guestPetIds) {
-            if (!userCart.getPetIds().contains(petId)) {
-                userCart.getPetIds().add(petId);
-            }
+        // Merge petIds: chỉ chèn các pet của guest, pet đã có trong cart user bị ON CONFLICT bỏ qua
+        for (Long petId : guestCartOpt.get()) {
+            userCartItemRepository.addItem(userCart.getId(), petId);
         }
-        userCart.setUpdatedAt(LocalDateTime.now());
-        userCartRepository.save(userCart);
 
         // Trả về danh sách pet đã merge
-        List<PetResponseDTO> pets = new ArrayList<>();
-        for (Long id : userCart.getPetIds()) {
-            petService.findById(id).ifPresent(pet -> pets.add(toPetResponseDTO(pet)));
-        }
-
-        guestCartRepository.deleteById(token);
+        List<PetResponseDTO> pets = petService.findAllByIds(userCartItemRepository.findPetIds(userCart.getId()));
 
         // Trả về pets data thay vì string message
         Map<String, Object> response = new HashMap<>();
@@ -225,15 +179,10 @@ public class GuestCartController {
         UserCart userCart = userCartRepository.findByUserId(user.getId()).orElse(null);
         if (userCart == null) return ResponseEntity.badRequest().body("Cart not found");
         
-        userCart.getPetIds().remove(petId);
-        userCart.setUpdatedAt(LocalDateTime.now());
-        userCartRepository.save(userCart);
+        userCartItemRepository.removeItem(userCart.getId(), petId);
         
         // Trả về danh sách pet còn lại trong cart
-        List<PetResponseDTO> pets = new ArrayList<>();
-        for (Long id : userCart.getPetIds()) {
-            petService.findById(id).ifPresent(pet -> pets.add(toPetResponseDTO(pet)));
-        }
+        List<PetResponseDTO> pets = petService.findAllByIds(userCartItemRepository.findPetIds(userCart.getId()));
         
         return ResponseEntity.ok(pets);
     }
@@ -253,46 +202,26 @@ public class GuestCartController {
         UserCart userCart = userCartRepository.findByUserId(user.getId()).orElse(null);
         if (userCart == null) return ResponseEntity.ok("Cart already empty");
         
-        userCart.getPetIds().clear();
-        userCart.setUpdatedAt(LocalDateTime.now());
-        userCartRepository.save(userCart);
+        userCartItemRepository.clear(userCart.getId());
         
         return ResponseEntity.ok("Cart cleared successfully");
     }
 
-    // Helper chuyển Pet sang PetResponseDTO (tái sử dụng logic từ PetController)
-    private PetResponseDTO toPetResponseDTO(com.ecommerce.pawfund.entity.Pet pet) {
-        PetResponseDTO dto = new PetResponseDTO();
-        dto.setId(pet.getId());
-        dto.setName(pet.getName());
-        dto.setImageUrls(pet.getImageUrls());
-        dto.setDescription(pet.getDescription());
-        dto.setAge(pet.getAge());
-        dto.setBreed(pet.getBreed());
-        dto.setLocation(pet.getLocation());
-        dto.setStatus(pet.getStatus() != null ? pet.getStatus().name() : null);
-        dto.setShelter(toShelterDTO(pet.getShelter()));
-        return dto;
-    }
-
-    private com.ecommerce.pawfund.dto.ShelterDTO toShelterDTO(com.ecommerce.pawfund.entity.User shelter) {
-        if (shelter == null) return null;
-        com.ecommerce.pawfund.dto.ShelterDTO dto = new com.ecommerce.pawfund.dto.ShelterDTO();
-        dto.setUsername(shelter.getUsername());
-        dto.setEmail(shelter.getEmail());
-        dto.setFullName(shelter.getFullName());
-        dto.setPhone(shelter.getPhone());
-        dto.setAddress(shelter.getAddress());
-        return dto;
+    // Dòng user_carts chỉ ghi một lần lúc tạo; thêm/xoá pet ghi vào user_cart_items
+    private UserCart findOrCreateUserCart(User user) {
+        return userCartRepository.findByUserId(user.getId()).orElseGet(() -> {
+            UserCart c = new UserCart();
+            c.setUser(user);
+            c.setCreatedAt(LocalDateTime.now());
+            c.setUpdatedAt(c.getCreatedAt());
+            return userCartRepository.save(c);
+        });
     }
 
-    private GuestCartResponseDTO toGuestCartResponseDTO(GuestCart cart) {
+    private GuestCartResponseDTO toGuestCartResponseDTO(String token, List<Long> petIds) {
         GuestCartResponseDTO dto = new GuestCartResponseDTO();
-        dto.setToken(cart.getToken());
-        List<PetResponseDTO> pets = new ArrayList<>();
-        for (Long petId : cart.getPetIds()) {
-            petService.findById(petId).ifPresent(pet -> pets.add(toPetResponseDTO(pet)));
-        }
+        dto.setToken(token);
+        List<PetResponseDTO> pets = petService.findAllByIds(petIds);
         dto.setPets(pets);
         return dto;
     }
@@ -1,20 +1,34 @@
 package com.ecommerce.pawfund.controller;
 
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.HttpCachePolicy;
+import com.ecommerce.pawfund.cache.VersionStamp;
 import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.search.PetSuggestIndex;
 import com.ecommerce.pawfund.service.inter.ICloudinaryService;
+import com.ecommerce.pawfund.service.inter.IImageJobService;
+import com.ecommerce.pawfund.service.inter.IPetExportService;
+import com.ecommerce.pawfund.service.inter.IPetImageService;
 import com.ecommerce.pawfund.service.inter.IPetService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 import java.util.Optional;
 import com.ecommerce.pawfund.entity.User;
 import com.ecommerce.pawfund.repository.UserRepository;
+import com.ecommerce.pawfund.dto.CursorPage;
 import com.ecommerce.pawfund.dto.PetResponseDTO;
+import com.ecommerce.pawfund.dto.ImageJob;
+import com.ecommerce.pawfund.dto.StoredImage;
 import com.ecommerce.pawfund.dto.ShelterDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,23 +36,98 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestParam;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/pets")
 public class PetController {
+    private static final int MAX_BATCH_IDS = 100;
+
     @Autowired
     private IPetService petService;
     @Autowired
     private ICloudinaryService cloudinaryService;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private IPetExportService petExportService;
+    @Autowired
+    private PetSuggestIndex petSuggestIndex;
+    @Autowired
+    private IPetImageService petImageService;
+    @Autowired
+    private IImageJobService imageJobService;
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    @Autowired
+    private CatalogVersion catalogVersion;
 
     @GetMapping
-    public ResponseEntity<Page<PetResponseDTO>> getPets(
+    public ResponseEntity<?> getPets(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "2") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer age,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Integer ageMin,
+            @RequestParam(required = false) Integer ageMax,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) String q,
+            WebRequest webRequest
+    ) {
+        // ETag theo bộ đếm phiên bản catalog: If-None-Match khớp thì trả 304, không chạy truy vấn
+        return httpCachePolicy.respond(webRequest, catalogVersion.etag(CatalogVersion.Scope.PETS),
+            catalogVersion.lastModified(CatalogVersion.Scope.PETS),
+            () -> listPets(page, size, status, breed, search, age, location, ageMin, ageMax, gender, cursor, limit, lat, lon, radiusKm, q));
+    }
+
+    private ResponseEntity<?> listPets(int page, int size, String status, String breed, String search, Integer age,
+                                       String location, Integer ageMin, Integer ageMax, String gender, String cursor,
+                                       Integer limit, Double lat, Double lon, double radiusKm, String q) {
+        // Có lat/lon: chỉ lấy pet trong bán kính, sắp theo khoảng cách gần nhất
+        if (lat != null && lon != null) {
+            if (lat < -90 || lat > 90 || lon < -180 || lon > 180 || radiusKm <= 0) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid lat/lon/radiusKm"));
+            }
+            Page<PetResponseDTO> nearby = petService.findNear(status, breed, search, age, location, ageMin, ageMax, gender,
+                                                              lat, lon, Math.min(radiusKm, 2000), PageRequest.of(page, size));
+            return ResponseEntity.ok(nearby);
+        }
+        // Tìm theo ngữ nghĩa bằng embedding, sắp theo độ tương đồng
+        if (q != null && !q.isBlank()) {
+            Page<PetResponseDTO> matches = petService.findBySemanticQuery(q, status, breed, age, location, ageMin, ageMax, gender, PageRequest.of(page, size));
+            return ResponseEntity.ok(matches);
+        }
+        // Có cursor/limit: phân trang keyset, trả về nextCursor thay vì số trang
+        if (cursor != null || limit != null) {
+            try {
+                int pageSize = CursorPage.clampLimit(limit, size);
+                List<PetResponseDTO> rows = petService.findByFilterAfter(status, breed, search, age, location, ageMin, ageMax, gender,
+                                                                         CursorPage.decode(cursor), pageSize + 1);
+                return ResponseEntity.ok(CursorPage.of(rows, pageSize, PetResponseDTO::getId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        Page<PetResponseDTO> pets = petService.findByFilterAndSearch(status, breed, search, age, location, ageMin, ageMax, gender, pageable);
+        return ResponseEntity.ok(pets);
+    }
+
+    // Trang kết quả + số lượng theo breed/location/gender/status/nhóm tuổi cho cùng bộ lọc
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getPetsWithFacets(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "2") int size,
             @RequestParam(required = false) String status,
@@ -51,15 +140,83 @@ public class PetController {
             @RequestParam(required = false) String gender
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Pet> pets = petService.findByFilterAndSearch(status, breed, search, age, location, ageMin, ageMax, gender, pageable);
-        Page<PetResponseDTO> dtoPage = pets.map(this::toPetResponseDTO);
-        return ResponseEntity.ok(dtoPage);
+        Page<PetResponseDTO> pets = petService.findByFilterAndSearch(status, breed, search, age, location, ageMin, ageMax, gender, pageable);
+        Map<String, Object> response = new HashMap<>();
+        response.put("page", pets);
+        response.put("facets", petService.countFacets(status, breed, search, age, location, ageMin, ageMax, gender));
+        return ResponseEntity.ok(response);
+    }
+
+    // Gợi ý typeahead cho ô lọc breed/location, đọc từ trie trong bộ nhớ
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam String field,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        PetSuggestIndex.Field target;
+        try {
+            target = PetSuggestIndex.Field.valueOf(field.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "field must be breed or location"));
+        }
+        return ResponseEntity.ok(petSuggestIndex.suggest(target, prefix, Math.max(1, Math.min(50, limit))));
     }
 
+    // Xuất catalog theo bộ lọc, stream từng dòng nên không phụ thuộc kích thước bảng
+    @GetMapping("/export")
+    public ResponseEntity<?> exportPets(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer age,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Integer ageMin,
+            @RequestParam(required = false) Integer ageMax,
+            @RequestParam(required = false) String gender
+    ) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported format: " + format));
+        }
+        StreamingResponseBody body = out ->
+            petExportService.export(format, status, breed, search, age, location, ageMin, ageMax, gender, out);
+        return ResponseEntity.ok()
+            .contentType(csv ? MediaType.parseMediaType("text/csv;charset=UTF-8") : MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pets." + (csv ? "csv" : "ndjson") + "\"")
+            .body(body);
+    }
+
+    // Nhiều thẻ pet trong một request (cart, danh sách yêu thích): GET /api/pets/batch?ids=3,1,2, giữ thứ tự ids
+    @GetMapping("/batch")
+    public ResponseEntity<?> getPetsByIds(@RequestParam List<Long> ids, WebRequest webRequest) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BATCH_IDS + " ids per request"));
+        }
+        return httpCachePolicy.respond(webRequest, catalogVersion.etag(CatalogVersion.Scope.PETS),
+            catalogVersion.lastModified(CatalogVersion.Scope.PETS),
+            () -> ResponseEntity.ok(petService.findAllByIds(ids)));
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<PetResponseDTO>> getSimilarPets(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "10") int k) {
+        if (petService.findById(id).isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(petService.findSimilar(id, Math.max(1, Math.min(50, k))));
+    }
+
+    // Trang chi tiết: trả về đầy đủ danh sách ảnh
+    // If-None-Match chỉ cần version của pet, trả 304 trước khi tải entity
     @GetMapping("/{id}")
-    public ResponseEntity<Pet> getPetById(@PathVariable Long id) {
-        Optional<Pet> pet = petService.findById(id);
-        return pet.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> getPetById(@PathVariable Long id, WebRequest webRequest) {
+        Optional<VersionStamp> stamp = petService.findVersionStamp(id);
+        if (stamp.isEmpty()) return ResponseEntity.notFound().build();
+        return httpCachePolicy.respond(webRequest, stamp.get().etag("pet", id), stamp.get().lastModifiedMillis(), () -> {
+            Optional<Pet> pet = petService.findById(id);
+            pet.ifPresent(p -> petImageService.attachImages(List.of(p)));
+            return pet.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        });
     }
 
     // Endpoint để thêm ảnh cho pet
@@ -98,77 +255,49 @@ public class PetController {
                 }
             }
             
-            List<String> uploadedUrls = new ArrayList<>();
             List<String> errors = new ArrayList<>();
+            List<MultipartFile> validFiles = new ArrayList<>();
             
             for (int i = 0; i < images.size(); i++) {
                 MultipartFile file = images.get(i);
                 System.out.println("Processing image " + (i+1) + ": " + file.getOriginalFilename() + 
                                 " (size: " + file.getSize() + " bytes, type: " + file.getContentType() + ")");
                 
-                // Validate file type
-                if (file.getContentType() == null || !file.getContentType().startsWith("image/")) {
-                    String error = "File " + file.getOriginalFilename() + " is not an image";
-                    System.out.println("ERROR: " + error);
-                    errors.add(error);
-                    continue;
-                }
-                
-                // Validate file size (max 10MB)
-                if (file.getSize() > 10 * 1024 * 1024) {
-                    String error = "File " + file.getOriginalFilename() + " is too large (max 10MB)";
+                String error = validateImage(file);
+                if (error != null) {
                     System.out.println("ERROR: " + error);
                     errors.add(error);
                     continue;
                 }
                 
-                try {
-                    String url = cloudinaryService.uploadFile(file);
-                    uploadedUrls.add(url);
-                    System.out.println("Successfully uploaded image " + (i+1) + " to: " + url);
-                } catch (Exception e) {
-                    String error = "Failed to upload " + file.getOriginalFilename() + ": " + e.getMessage();
-                    System.out.println("ERROR: " + error);
-                    errors.add(error);
-                }
+                validFiles.add(file);
             }
             
-            // Thêm ảnh mới vào imageUrls hiện tại
-            if (!uploadedUrls.isEmpty()) {
-                String currentUrls = pet.getImageUrls();
-                String newUrls = String.join(",", uploadedUrls);
-                
-                if (currentUrls != null && !currentUrls.isEmpty()) {
-                    pet.setImageUrls(currentUrls + "," + newUrls);
-                } else {
-                    pet.setImageUrls(newUrls);
-                }
-                
-                petService.save(pet);
-                System.out.println("Updated pet " + petId + " with " + uploadedUrls.size() + " new images");
-            }
-            
-            // Đếm số ảnh hiện tại trong pet
-            int currentImageCount = 0;
-            if (pet.getImageUrls() != null && !pet.getImageUrls().isEmpty()) {
-                currentImageCount = pet.getImageUrls().split(",").length;
+            if (validFiles.isEmpty()) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "No valid images to upload");
+                errorResponse.put("errors", errors);
+                return ResponseEntity.badRequest().body(errorResponse);
             }
             
-            // Tính tổng số ảnh sau khi upload
-            int totalImageCount = currentImageCount + uploadedUrls.size();
+            // Upload chạy nền, client theo dõi tiến độ qua statusUrl
+            ImageJob job = imageJobService.submit(petId, validFiles);
+            String statusUrl = "/api/pets/" + petId + "/image-jobs/" + job.getId();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("petId", petId);
-            response.put("uploadedCount", uploadedUrls.size());
-            response.put("totalCount", totalImageCount);
-            response.put("urls", uploadedUrls);
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            response.put("acceptedCount", validFiles.size());
             response.put("errors", errors);
-            response.put("message", "Successfully added " + uploadedUrls.size() + " images to pet " + petId + ". Total images: " + totalImageCount);
+            response.put("statusUrl", statusUrl);
+            response.put("message", "Accepted " + validFiles.size() + " images for pet " + petId);
             
-            System.out.println("Add images completed: " + uploadedUrls.size() + " successful, " + errors.size() + " failed");
+            System.out.println("Add images queued: job " + job.getId() + ", " + validFiles.size() + " accepted, " + errors.size() + " rejected");
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().location(URI.create(statusUrl)).body(response);
             
         } catch (Exception e) {
             System.out.println("ERROR in add images to pet: " + e.getMessage());
@@ -235,45 +364,28 @@ public class PetController {
                 return ResponseEntity.status(400).body(errorResponse);
             }
             
-            // Lấy danh sách URL hiện tại
-            String currentImageUrls = pet.getImageUrls();
-            if (currentImageUrls == null || currentImageUrls.isEmpty()) {
+            if (petImageService.countByPetId(petId) == 0) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("success", false);
                 errorResponse.put("message", "Pet has no images to remove");
                 return ResponseEntity.status(400).body(errorResponse);
             }
             
-            List<String> currentUrls = Arrays.asList(currentImageUrls.split(","));
-            List<String> remainingUrls = new ArrayList<>();
+            // Xoá từng dòng trong pet_images, các ảnh còn lại giữ nguyên
             List<String> removedUrls = new ArrayList<>();
-            
-            // Lọc ra các URL cần giữ lại
-            for (String url : currentUrls) {
+            for (String url : urlsToRemove) {
                 String trimmedUrl = url.trim();
-                if (!urlsToRemove.contains(trimmedUrl)) {
-                    remainingUrls.add(trimmedUrl);
-                } else {
+                if (petImageService.remove(petId, trimmedUrl)) {
                     removedUrls.add(trimmedUrl);
                 }
             }
-            
-            // Cập nhật imageUrls TRƯỚC
-            if (remainingUrls.isEmpty()) {
-                pet.setImageUrls(null);
-            } else {
-                pet.setImageUrls(String.join(",", remainingUrls));
-            }
-            
-            // Lưu vào database
-            petService.save(pet);
             System.out.println("Database updated successfully");
             
-            // Bỏ qua việc xóa từ Cloudinary vì không hoạt động
-            System.out.println("Skipping Cloudinary deletion for URLs: " + removedUrls);
+            // File trên storage được xoá ở nền (image_deletions), request không chờ
+            System.out.println("Queued storage deletion for URLs: " + removedUrls);
             
             // Đếm số ảnh còn lại
-            int remainingCount = remainingUrls.size();
+            long remainingCount = petImageService.countByPetId(petId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -357,15 +469,12 @@ public class PetController {
             return ResponseEntity.status(403).build();
         }
         
-        if (images != null && !images.isEmpty()) {
-            try {
-                System.out.println("Uploading " + images.size() + " images...");
-                List<String> urls = cloudinaryService.uploadFiles(images);
-                pet.setImageUrls(String.join(",", urls));
-                System.out.println("Uploaded images: " + urls);
-            } catch (Exception e) {
-                System.out.println("Error uploading images: " + e.getMessage());
-                e.printStackTrace();
+        // Validate ảnh ngay trong request, upload chạy nền sau khi lưu pet
+        List<MultipartFile> newImages = images != null ? images : new ArrayList<>();
+        for (MultipartFile file : newImages) {
+            String error = validateImage(file);
+            if (error != null) {
+                System.out.println("ERROR: " + error);
                 return ResponseEntity.badRequest().build();
             }
         }
@@ -388,7 +497,24 @@ public class PetController {
         
             Pet saved = petService.save(pet);
             System.out.println("Pet saved with ID: " + saved.getId());
-            return ResponseEntity.ok(toPetResponseDTO(saved));
+            if (newImages.isEmpty()) {
+                return ResponseEntity.ok(toPetResponseDTO(saved));
+            }
+            // 202: pet đã tạo, ảnh được gắn vào khi job upload xong
+            ImageJob job;
+            try {
+                job = imageJobService.submit(saved.getId(), newImages);
+            } catch (Exception e) {
+                // Không spool/xếp hàng được ảnh: bỏ pet vừa tạo để không còn pet thiếu ảnh, client gửi lại cả request
+                petService.deleteById(saved.getId());
+                System.err.println("Image job for new pet " + saved.getId() + " not accepted, pet removed: " + e.getMessage());
+                return ResponseEntity.status(e instanceof RejectedExecutionException ? 503 : 500).build();
+            }
+            PetResponseDTO dto = toPetResponseDTO(saved);
+            dto.setImageJobId(job.getId());
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/pets/" + saved.getId() + "/image-jobs/" + job.getId()))
+                .body(dto);
             
         } catch (Exception e) {
             System.err.println("ERROR in createPet: " + e.getMessage());
@@ -398,11 +524,36 @@ public class PetController {
     }
   
 
+    // Trạng thái job upload ảnh: processed/succeeded/failed và URL từng file
+    @GetMapping("/{id}/image-jobs/{jobId}")
+    public ResponseEntity<ImageJob> getImageJob(@PathVariable Long id, @PathVariable String jobId) {
+        return imageJobService.find(id, jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // null nếu hợp lệ, ngược lại trả thông báo lỗi
+    private String validateImage(MultipartFile file) {
+        if (file.getContentType() == null || !file.getContentType().startsWith("image/")) {
+            return "File " + file.getOriginalFilename() + " is not an image";
+        }
+        if (file.getSize() > 10 * 1024 * 1024) {
+            return "File " + file.getOriginalFilename() + " is too large (max 10MB)";
+        }
+        return null;
+    }
+
     private PetResponseDTO toPetResponseDTO(Pet pet) {
         PetResponseDTO dto = new PetResponseDTO();
         dto.setId(pet.getId());
         dto.setName(pet.getName());
         dto.setImageUrls(pet.getImageUrls());
+        if (pet.getImages() != null && !pet.getImages().isEmpty()) {
+            List<StoredImage> images = pet.getImages().stream().map(StoredImage::of).toList();
+            dto.setImages(images);
+            dto.setCardImageUrl(images.get(0).cardUrl());
+            dto.setThumbnailUrl(images.get(0).thumbUrl());
+        }
         dto.setDescription(pet.getDescription());
         dto.setAge(pet.getAge());
         dto.setBreed(pet.getBreed());
@@ -412,6 +563,8 @@ public class PetController {
         dto.setVaccinated(pet.getVaccinated());
         dto.setDewormed(pet.getDewormed());
         dto.setShelter(toShelterDTO(pet.getShelter()));
+        dto.setLatitude(pet.getLatitude());
+        dto.setLongitude(pet.getLongitude());
         return dto;
     }
 
@@ -462,17 +615,19 @@ public class PetController {
                 pet.setShelter(existingPet.getShelter());
             }
             
+            // Có ảnh mới thì thay toàn bộ ảnh như trước đây, không thì giữ nguyên pet_images
+            List<StoredImage> uploaded = null;
             if (images != null && !images.isEmpty()) {
                 try {
-                    List<String> urls = cloudinaryService.uploadFiles(images);
-                    pet.setImageUrls(String.join(",", urls));
+                    uploaded = cloudinaryService.uploadFiles(images);
                 } catch (Exception e) {
                     return ResponseEntity.badRequest().build();
                 }
-            } else {
-                pet.setImageUrls(existingPet.getImageUrls());
             }
-            return ResponseEntity.ok(petService.save(pet));
+            Pet saved = petService.save(pet);
+            if (uploaded != null) petImageService.replaceAll(id, uploaded);
+            petImageService.attachImages(List.of(saved));
+            return ResponseEntity.ok(saved);
         }
         return ResponseEntity.notFound().build();
     }
@@ -488,54 +643,12 @@ public class PetController {
     }
 
     // Get pet statistics - Admin only
+    // Một câu aggregate trong DB, bộ nhớ không phụ thuộc số lượng pet; shelterId để xem riêng một shelter
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getPetStats() {
+    public ResponseEntity<Map<String, Object>> getPetStats(@RequestParam(required = false) Long shelterId) {
         try {
-            List<Pet> allPets = petService.findAll();
-            
-            // Calculate statistics
-            long totalPets = allPets.size();
-            long availablePets = allPets.stream()
-                .filter(pet -> Pet.Status.AVAILABLE.equals(pet.getStatus()))
-                .count();
-            long adoptedPets = allPets.stream()
-                .filter(pet -> Pet.Status.ADOPTED.equals(pet.getStatus()))
-                .count();
-            long pendingPets = allPets.stream()
-                .filter(pet -> Pet.Status.PENDING.equals(pet.getStatus()))
-                .count();
-            
-            // Count by gender
-            long malePets = allPets.stream()
-                .filter(pet -> Pet.Gender.MALE.equals(pet.getGender()))
-                .count();
-            long femalePets = allPets.stream()
-                .filter(pet -> Pet.Gender.FEMALE.equals(pet.getGender()))
-                .count();
-            
-            // Count by age groups
-            long youngPets = allPets.stream()
-                .filter(pet -> pet.getAge() != null && pet.getAge() <= 2)
-                .count();
-            long adultPets = allPets.stream()
-                .filter(pet -> pet.getAge() != null && pet.getAge() > 2 && pet.getAge() <= 7)
-                .count();
-            long seniorPets = allPets.stream()
-                .filter(pet -> pet.getAge() != null && pet.getAge() > 7)
-                .count();
-            
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalPets", totalPets);
-            stats.put("availablePets", availablePets);
-            stats.put("adoptedPets", adoptedPets);
-            stats.put("pendingPets", pendingPets);
-            stats.put("malePets", malePets);
-            stats.put("femalePets", femalePets);
-            stats.put("youngPets", youngPets);
-            stats.put("adultPets", adultPets);
-            stats.put("seniorPets", seniorPets);
-            
+            Map<String, Object> stats = new HashMap<>(petService.countStats(shelterId));
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -1,5 +1,6 @@
 package com.ecommerce.pawfund.controller;
 
+import com.ecommerce.pawfund.dto.CursorPage;
 import com.ecommerce.pawfund.entity.User;
 import com.ecommerce.pawfund.service.inter.IUserService;
 
@@ -26,8 +27,18 @@ public class UserController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.findAll();
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit) {
+        if (cursor != null || limit != null) {
+            try {
+                int pageSize = CursorPage.clampLimit(limit, 20);
+                List<User> rows = userService.findAfter(CursorPage.decode(cursor), pageSize + 1);
+                return ResponseEntity.ok(CursorPage.of(rows, pageSize, User::getId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        return ResponseEntity.ok(userService.findAll());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,76 @@
+package com.ecommerce.pawfund.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Một trang kết quả phân trang theo keyset (cursor) cho infinite scroll.
+ * Cursor là chuỗi mờ (Base64) chứa cột sắp xếp và id của phần tử cuối cùng đã trả về;
+ * trang sau chỉ cần seek "id > cursor" trên index nên chi phí không phụ thuộc độ sâu.
+ */
+public class CursorPage<T> {
+    public static final int MAX_LIMIT = 100;
+    private static final String SORT_KEY = "id";
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    /**
+     * rows được truy vấn với limit + 1 dòng: dòng thừa chỉ để biết còn trang sau hay không.
+     */
+    public static <E> CursorPage<E> of(List<E> rows, int limit, ToLongFunction<E> idOf) {
+        if (rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<E> content = rows.subList(0, limit);
+        return new CursorPage<>(content, encode(idOf.applyAsLong(content.get(limit - 1))));
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new CursorPage<>(mapped, nextCursor);
+    }
+
+    public static String encode(long lastId) {
+        String raw = SORT_KEY + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Trả về id cuối của trang trước, 0 nếu chưa có cursor (trang đầu).
+     * Cursor sai định dạng ném IllegalArgumentException.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return 0L;
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int sep = raw.indexOf(':');
+        if (sep < 0 || !SORT_KEY.equals(raw.substring(0, sep))) throw new IllegalArgumentException("Invalid cursor");
+        try {
+            return Long.parseLong(raw.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static int clampLimit(Integer limit, int defaultLimit) {
+        int value = limit != null ? limit : defaultLimit;
+        return Math.max(1, Math.min(MAX_LIMIT, value));
+    }
+
+    public List<T> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasNext() { return hasNext; }
+}
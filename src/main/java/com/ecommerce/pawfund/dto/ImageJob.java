@@ -0,0 +1,81 @@
+package com.ecommerce.pawfund.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Trạng thái một lần upload ảnh chạy nền cho pet (GET /api/pets/{id}/image-jobs/{jobId}).
+ * Worker cập nhật, request đọc, nên các trường được ghi/đọc trong synchronized.
+ */
+public class ImageJob {
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, PARTIAL, FAILED
+    }
+
+    private final String id;
+    private final Long petId;
+    private final int total;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private Status status = Status.QUEUED;
+    private LocalDateTime finishedAt;
+    // Lỗi của cả job (vd. không ghi được pet_images), khác lỗi của từng file trong results
+    private String error;
+    private List<UploadResult> results = new ArrayList<>();
+
+    public ImageJob(String id, Long petId, int total) {
+        this.id = id;
+        this.petId = petId;
+        this.total = total;
+    }
+
+    public String getId() { return id; }
+    public Long getPetId() { return petId; }
+    public int getTotal() { return total; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public synchronized Status getStatus() { return status; }
+    public synchronized LocalDateTime getFinishedAt() { return finishedAt; }
+    public synchronized String getError() { return error; }
+    public synchronized List<UploadResult> getResults() { return Collections.unmodifiableList(new ArrayList<>(results)); }
+
+    // Số file đã xử lý xong (thành công hoặc lỗi), để hiển thị tiến độ
+    public synchronized int getProcessed() {
+        return results.size();
+    }
+
+    public synchronized int getSucceeded() {
+        return (int) results.stream().filter(UploadResult::isSuccess).count();
+    }
+
+    public synchronized int getFailed() {
+        return results.size() - getSucceeded();
+    }
+
+    public synchronized boolean isDone() {
+        return status == Status.COMPLETED || status == Status.PARTIAL || status == Status.FAILED;
+    }
+
+    public synchronized void start() {
+        status = Status.RUNNING;
+    }
+
+    public synchronized void record(UploadResult result) {
+        results.add(result);
+    }
+
+    public synchronized void fail(String message) {
+        error = message;
+    }
+
+    public synchronized void finish() {
+        int succeeded = getSucceeded();
+        if (error != null || succeeded == 0) {
+            status = Status.FAILED;
+        } else {
+            status = succeeded == total ? Status.COMPLETED : Status.PARTIAL;
+        }
+        finishedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.pawfund.dto;
+
+import com.ecommerce.pawfund.entity.Pet;
+
+/**
+ * Projection phẳng cho thẻ pet ở trang danh sách / cart: chỉ các cột của PetResponseDTO
+ * và ShelterDTO, không tải entity User của shelter (password, role, ...).
+ */
+public interface PetCardView {
+    Long getId();
+    String getName();
+    String getDescription();
+    Integer getAge();
+    String getBreed();
+    String getLocation();
+    Pet.Status getStatus();
+    Pet.Gender getGender();
+    Boolean getVaccinated();
+    Boolean getDewormed();
+    Double getLatitude();
+    Double getLongitude();
+    Long getShelterId();
+    String getShelterUsername();
+    String getShelterEmail();
+    String getShelterFullName();
+    String getShelterPhone();
+    String getShelterAddress();
+}
@@ -1,9 +1,16 @@
 package com.ecommerce.pawfund.dto;
 
+import java.util.List;
+
 public class PetResponseDTO {
     private Long id;
     private String name;
     private String imageUrls;
+    // Bản thu nhỏ của ảnh bìa: cardImageUrl cho thẻ danh sách, thumbnailUrl cho ảnh nhỏ
+    private String cardImageUrl;
+    private String thumbnailUrl;
+    // Tất cả ảnh kèm bản thu nhỏ, chỉ có ở response chi tiết (thẻ danh sách chỉ có ảnh bìa)
+    private List<StoredImage> images;
     private String description;
     private int age;
     private String breed;
@@ -13,6 +20,10 @@ public class PetResponseDTO {
     private Boolean vaccinated;
     private Boolean dewormed;
     private ShelterDTO shelter;
+    private Double latitude;
+    private Double longitude;
+    // Chỉ có khi tạo pet kèm ảnh: id của job upload nền (GET /api/pets/{id}/image-jobs/{jobId})
+    private String imageJobId;
 
     // Getter/setter
     public Long getId() { return id; }
@@ -21,6 +32,12 @@ public class PetResponseDTO {
     public void setName(String name) { this.name = name; }
     public String getImageUrls() { return imageUrls; }
     public void setImageUrls(String imageUrls) { this.imageUrls = imageUrls; }
+    public String getCardImageUrl() { return cardImageUrl; }
+    public void setCardImageUrl(String cardImageUrl) { this.cardImageUrl = cardImageUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public List<StoredImage> getImages() { return images; }
+    public void setImages(List<StoredImage> images) { this.images = images; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public int getAge() { return age; }
@@ -39,4 +56,10 @@ public class PetResponseDTO {
     public void setDewormed(Boolean dewormed) { this.dewormed = dewormed; }
     public ShelterDTO getShelter() { return shelter; }
     public void setShelter(ShelterDTO shelter) { this.shelter = shelter; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public String getImageJobId() { return imageJobId; }
+    public void setImageJobId(String imageJobId) { this.imageJobId = imageJobId; }
 } 
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.ecommerce.pawfund.dto;
+
+import com.ecommerce.pawfund.entity.PetImage;
+
+/**
+ * Một ảnh đã lưu cùng các bản thu nhỏ: url là bản full, cardUrl cho thẻ danh sách, thumbUrl cho ảnh nhỏ.
+ * Ảnh cũ hoặc định dạng không thu nhỏ được chỉ có url; cardUrl/thumbUrl khi đó trỏ về url.
+ * contentHash là SHA-256 của file gốc, null với ảnh cũ.
+ */
+public record StoredImage(String url, String cardUrl, String thumbUrl, Integer width, Integer height,
+                          String contentHash) {
+
+    public static StoredImage original(String url) {
+        return new StoredImage(url, url, url, null, null, null);
+    }
+
+    public StoredImage withContentHash(String contentHash) {
+        return new StoredImage(url, cardUrl, thumbUrl, width, height, contentHash);
+    }
+
+    public static StoredImage of(PetImage image) {
+        return new StoredImage(
+            image.getUrl(),
+            image.getCardUrl() != null ? image.getCardUrl() : image.getUrl(),
+            image.getThumbUrl() != null ? image.getThumbUrl() : image.getUrl(),
+            image.getWidth(),
+            image.getHeight(),
+            image.getContentHash());
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.pawfund.dto;
+
+/**
+ * Kết quả upload của từng file, cùng thứ tự với danh sách file gửi lên.
+ * image != null là thành công, ngược lại error chứa lý do.
+ */
+public record UploadResult(int index, String filename, StoredImage image, String error) {
+
+    public static UploadResult success(int index, String filename, StoredImage image) {
+        return new UploadResult(index, filename, image, null);
+    }
+
+    public static UploadResult failure(int index, String filename, String error) {
+        return new UploadResult(index, filename, null, error);
+    }
+
+    public boolean isSuccess() {
+        return image != null;
+    }
+
+    // URL bản full
+    public String url() {
+        return image != null ? image.url() : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.pawfund.embedding;
+
+/**
+ * Nguồn vector embedding cho văn bản. Vector trả về phải đã chuẩn hoá L2
+ * để HnswIndex dùng tích vô hướng làm độ tương đồng cosine.
+ */
+public interface EmbeddingProvider {
+    // Định danh lưu kèm file chỉ mục; đổi provider/model thì chỉ mục được dựng lại
+    String id();
+
+    int dimensions();
+
+    float[] embed(String text);
+
+    static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) norm += x * x;
+        if (norm == 0) return v;
+        float inv = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < v.length; i++) v[i] *= inv;
+        return v;
+    }
+}
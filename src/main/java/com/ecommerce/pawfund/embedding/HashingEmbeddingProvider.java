@@ -0,0 +1,59 @@
+package com.ecommerce.pawfund.embedding;
+
+import com.ecommerce.pawfund.search.TextNormalizer;
+
+/**
+ * Embedding cục bộ, tất định (feature hashing): mỗi từ và trigram ký tự của từ
+ * được băm vào một chiều với dấu +/-. Không cần mạng hay model, dùng khi chạy local/test
+ * và làm mặc định khi không cấu hình provider khác.
+ */
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+    private static final float TOKEN_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    private final int dimensions;
+
+    public HashingEmbeddingProvider(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public String id() {
+        return "hashing-v1-" + dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] v = new float[dimensions];
+        for (String token : TextNormalizer.tokens(text)) {
+            add(v, token, TOKEN_WEIGHT);
+            // trigram giúp "poodle" gần "poodles", "phu quoc" gần "phuquoc"
+            String padded = "^" + token + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(v, padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+        }
+        return EmbeddingProvider.normalize(v);
+    }
+
+    private void add(float[] v, String feature, float weight) {
+        int h = mix(feature.hashCode());
+        int index = Math.floorMod(h, dimensions);
+        v[index] += (h & 0x80000000) == 0 ? weight : -weight;
+    }
+
+    // String.hashCode ổn định giữa các JVM; trộn thêm để phân bố đều các bit thấp
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,358 @@
+package com.ecommerce.pawfund.embedding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Chỉ mục HNSW (Hierarchical Navigable Small World) trong bộ nhớ cho vector đã chuẩn hoá,
+ * khoảng cách = 1 - tích vô hướng. Mỗi node có level ngẫu nhiên; tìm kiếm đi tham lam từ tầng
+ * trên xuống rồi mở rộng ef ứng viên ở tầng 0, nên không phải quét tuần tự.
+ * Cập nhật một key = đánh dấu node cũ đã xoá và chèn node mới; node xoá vẫn dùng để định tuyến
+ * và bị dọn khi dựng lại. Không thread-safe; PetEmbeddingIndex tự khoá.
+ */
+public final class HnswIndex {
+    private static final int MAGIC = 0x484e5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private float[][] vectors = new float[16][];
+    private long[] keys = new long[16];
+    private int[] hashes = new int[16];
+    private int[][][] links = new int[16][][];
+    private int[][] linkCounts = new int[16][];
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, Integer> nodeByKey = new HashMap<>();
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimensions, int m, int efConstruction) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    // Số key đang sống
+    public int liveCount() {
+        return nodeByKey.size();
+    }
+
+    public int deletedCount() {
+        return size - nodeByKey.size();
+    }
+
+    public boolean contains(long key) {
+        return nodeByKey.containsKey(key);
+    }
+
+    // Hash của nội dung đã embed, để biết có cần embed lại khi nội dung đổi
+    public Integer contentHash(long key) {
+        Integer node = nodeByKey.get(key);
+        return node != null ? hashes[node] : null;
+    }
+
+    public float[] vector(long key) {
+        Integer node = nodeByKey.get(key);
+        return node != null ? vectors[node] : null;
+    }
+
+    public Iterable<Long> keys() {
+        return new ArrayList<>(nodeByKey.keySet());
+    }
+
+    public void add(long key, float[] vector, int contentHash) {
+        if (vector.length != dimensions) throw new IllegalArgumentException("Expected " + dimensions + " dimensions");
+        remove(key);
+        int node = size++;
+        ensureCapacity(size);
+        int level = (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        vectors[node] = vector;
+        keys[node] = key;
+        hashes[node] = contentHash;
+        links[node] = new int[level + 1][];
+        linkCounts[node] = new int[level + 1];
+        for (int l = 0; l <= level; l++) links[node][l] = new int[(l == 0 ? maxM0 : m) + 1];
+        nodeByKey.put(key, node);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedy(vector, ep, l);
+        }
+        List<Candidate> eps = List.of(new Candidate(ep, distance(vector, vectors[ep])));
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> found = searchLayer(vector, eps, efConstruction, l);
+            List<Candidate> neighbors = selectNeighbors(found, l == 0 ? maxM0 : m);
+            for (Candidate c : neighbors) {
+                link(node, c.node, l);
+                link(c.node, node, l);
+            }
+            eps = found;
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    public void remove(long key) {
+        Integer node = nodeByKey.remove(key);
+        if (node != null) deleted.set(node);
+    }
+
+    /**
+     * k key gần nhất với query (đã chuẩn hoá), độ tương đồng giảm dần; bỏ qua key exclude.
+     */
+    public List<Hit> search(float[] query, int k, int ef, Long exclude) {
+        List<Hit> hits = new ArrayList<>();
+        if (entryPoint < 0 || k <= 0) return hits;
+        int ep = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            ep = greedy(query, ep, l);
+        }
+        int width = Math.max(ef, k + (exclude != null ? 1 : 0));
+        List<Candidate> found = searchLayer(query, List.of(new Candidate(ep, distance(query, vectors[ep]))), width, 0);
+        for (Candidate c : found) {
+            if (deleted.get(c.node)) continue;
+            if (exclude != null && keys[c.node] == exclude) continue;
+            hits.add(new Hit(keys[c.node], 1 - c.distance));
+            if (hits.size() == k) break;
+        }
+        return hits;
+    }
+
+    /**
+     * Dựng lại chỉ mục chỉ với các node còn sống (bỏ node đã xoá).
+     */
+    public HnswIndex compact() {
+        HnswIndex copy = new HnswIndex(dimensions, m, efConstruction);
+        for (int node = 0; node < size; node++) {
+            if (!deleted.get(node)) copy.add(keys[node], vectors[node], hashes[node]);
+        }
+        return copy;
+    }
+
+    public void save(Path path, String providerId) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(providerId);
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < size; node++) {
+                out.writeLong(keys[node]);
+                out.writeBoolean(deleted.get(node));
+                out.writeInt(hashes[node]);
+                for (float x : vectors[node]) out.writeFloat(x);
+                out.writeInt(links[node].length);
+                for (int l = 0; l < links[node].length; l++) {
+                    int count = linkCounts[node][l];
+                    out.writeInt(count);
+                    for (int i = 0; i < count; i++) out.writeInt(links[node][l][i]);
+                }
+            }
+        }
+        // ghi ra file tạm rồi đổi tên để không bao giờ để lại file hỏng khi đang ghi thì tắt máy
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Đọc chỉ mục đã lưu; trả về null nếu file không tồn tại hoặc được tạo bởi provider khác.
+     */
+    public static HnswIndex load(Path path, String providerId) throws IOException {
+        if (!Files.exists(path)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+            if (!providerId.equals(in.readUTF())) return null;
+            HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+            int size = in.readInt();
+            index.ensureCapacity(size);
+            index.size = size;
+            index.entryPoint = in.readInt();
+            index.maxLevel = in.readInt();
+            for (int node = 0; node < size; node++) {
+                index.keys[node] = in.readLong();
+                boolean isDeleted = in.readBoolean();
+                index.hashes[node] = in.readInt();
+                float[] v = new float[index.dimensions];
+                for (int i = 0; i < v.length; i++) v[i] = in.readFloat();
+                index.vectors[node] = v;
+                int levels = in.readInt();
+                index.links[node] = new int[levels][];
+                index.linkCounts[node] = new int[levels];
+                for (int l = 0; l < levels; l++) {
+                    int count = in.readInt();
+                    int[] list = new int[(l == 0 ? index.maxM0 : index.m) + 1];
+                    for (int i = 0; i < count; i++) list[i] = in.readInt();
+                    index.links[node][l] = list;
+                    index.linkCounts[node][l] = count;
+                }
+                if (isDeleted) index.deleted.set(node);
+                else index.nodeByKey.put(index.keys[node], node);
+            }
+            return index;
+        }
+    }
+
+    private int greedy(float[] query, int ep, int level) {
+        int current = ep;
+        float best = distance(query, vectors[current]);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] neighbors = links[current][level];
+            int count = linkCounts[current][level];
+            for (int i = 0; i < count; i++) {
+                float d = distance(query, vectors[neighbors[i]]);
+                if (d < best) {
+                    best = d;
+                    current = neighbors[i];
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Trả về tối đa ef node gần nhất ở tầng level, sắp theo khoảng cách tăng dần
+    private List<Candidate> searchLayer(float[] query, List<Candidate> entryPoints, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>((a, b) -> Float.compare(a.distance, b.distance));
+        PriorityQueue<Candidate> results = new PriorityQueue<>((a, b) -> Float.compare(b.distance, a.distance));
+        for (Candidate c : entryPoints) {
+            visited.set(c.node);
+            candidates.add(c);
+            results.add(c);
+            if (results.size() > ef) results.poll();
+        }
+        while (!candidates.isEmpty()) {
+            Candidate c = candidates.poll();
+            if (results.size() >= ef && c.distance > results.peek().distance) break;
+            if (level >= links[c.node].length) continue;
+            int[] neighbors = links[c.node][level];
+            int count = linkCounts[c.node][level];
+            for (int i = 0; i < count; i++) {
+                int n = neighbors[i];
+                if (visited.get(n)) continue;
+                visited.set(n);
+                float d = distance(query, vectors[n]);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate next = new Candidate(n, d);
+                    candidates.add(next);
+                    results.add(next);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort((a, b) -> Float.compare(a.distance, b.distance));
+        return sorted;
+    }
+
+    /**
+     * Heuristic chọn láng giềng của bài báo HNSW: chỉ giữ ứng viên gần node mới hơn
+     * là gần các láng giềng đã chọn, để các cạnh toả đều nhiều hướng.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> sortedCandidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        for (Candidate c : sortedCandidates) {
+            if (selected.size() >= max) break;
+            boolean good = true;
+            for (Candidate s : selected) {
+                if (distance(vectors[c.node], vectors[s.node]) < c.distance) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) selected.add(c);
+        }
+        // bù bằng các ứng viên gần nhất còn lại nếu heuristic loại quá nhiều
+        for (Candidate c : sortedCandidates) {
+            if (selected.size() >= max) break;
+            if (!selected.contains(c)) selected.add(c);
+        }
+        return selected;
+    }
+
+    private void link(int from, int to, int level) {
+        if (level >= links[from].length) return;
+        int[] list = links[from][level];
+        int count = linkCounts[from][level];
+        int max = level == 0 ? maxM0 : m;
+        for (int i = 0; i < count; i++) {
+            if (list[i] == to) return;
+        }
+        list[count++] = to;
+        if (count > max) {
+            // quá số cạnh cho phép: bỏ cạnh xa from nhất (rẻ hơn chạy lại heuristic mỗi lần)
+            int farthest = 0;
+            float farthestDistance = -1;
+            for (int i = 0; i < count; i++) {
+                float d = distance(vectors[from], vectors[list[i]]);
+                if (d > farthestDistance) {
+                    farthestDistance = d;
+                    farthest = i;
+                }
+            }
+            list[farthest] = list[--count];
+        }
+        linkCounts[from][level] = count;
+    }
+
+    private float distance(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) dot += a[i] * b[i];
+        return 1 - dot;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= vectors.length) return;
+        int newCapacity = Math.max(capacity, vectors.length * 2);
+        vectors = Arrays.copyOf(vectors, newCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        links = Arrays.copyOf(links, newCapacity);
+        linkCounts = Arrays.copyOf(linkCounts, newCapacity);
+    }
+
+    public record Hit(long key, float score) {}
+
+    private record Candidate(int node, float distance) {}
+}
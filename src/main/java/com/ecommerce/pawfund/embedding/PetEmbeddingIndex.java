@@ -0,0 +1,266 @@
+package com.ecommerce.pawfund.embedding;
+
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.repository.PetRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedding của pet (tên, giống, mô tả, thuộc tính) trong chỉ mục HNSW, lưu xuống đĩa.
+ * Khi khởi động: đọc file, chỉ embed lại pet mới hoặc đã đổi nội dung (so hash văn bản),
+ * gỡ pet đã bị xoá, rồi ghi lại file. Nhờ vậy tắt máy đột ngột chỉ làm mất phần tiết kiệm,
+ * không làm sai kết quả.
+ */
+@Component
+public class PetEmbeddingIndex {
+    private static final int REBUILD_BATCH = 1000;
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private EmbeddingProvider embeddingProvider;
+
+    @Value("${pawfund.embedding.enabled:true}")
+    private boolean enabled;
+    @Value("${pawfund.embedding.index-path:data/pet-embeddings.hnsw}")
+    private String indexPath;
+    @Value("${pawfund.embedding.ef-search:100}")
+    private int efSearch;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private HnswIndex index;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    // Rebuild tính vector ngoài khoá; cập nhật đến trong lúc đó được ghi lại (null = xoá)
+    // và áp vào chỉ mục mới trước khi bật ready
+    private boolean rebuilding;
+    private final Map<Long, Pet> pending = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            build();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pending.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void build() {
+        HnswIndex loaded = null;
+        try {
+            loaded = HnswIndex.load(Path.of(indexPath), embeddingProvider.id());
+        } catch (IOException e) {
+            System.err.println("Cannot read embedding index " + indexPath + ", rebuilding: " + e.getMessage());
+        }
+        HnswIndex working = loaded != null && loaded.dimensions() == embeddingProvider.dimensions()
+            ? loaded
+            : new HnswIndex(embeddingProvider.dimensions(), M, EF_CONSTRUCTION);
+
+        int embedded = 0;
+        Set<Long> seen = new HashSet<>();
+        int page = 0;
+        Page<Pet> batch;
+        do {
+            batch = petRepository.findAll(PageRequest.of(page++, REBUILD_BATCH, Sort.by("id")));
+            for (Pet pet : batch) {
+                seen.add(pet.getId());
+                String text = textOf(pet);
+                Integer hash = working.contentHash(pet.getId());
+                if (hash != null && hash == text.hashCode()) continue;
+                working.add(pet.getId(), embeddingProvider.embed(text), text.hashCode());
+                embedded++;
+            }
+        } while (batch.hasNext());
+        for (Long key : working.keys()) {
+            if (!seen.contains(key)) working.remove(key);
+        }
+        if (working.deletedCount() > working.liveCount()) working = working.compact();
+
+        // Áp các cập nhật đến trong lúc nạp; lặp đến khi không còn cập nhật mới rồi mới đổi chỉ mục
+        while (true) {
+            Map<Long, Pet> updates;
+            lock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    index = working;
+                    ready = true;
+                    break;
+                }
+                updates = new HashMap<>(pending);
+                pending.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (Map.Entry<Long, Pet> update : updates.entrySet()) {
+                if (update.getValue() == null) {
+                    working.remove(update.getKey());
+                    continue;
+                }
+                String text = textOf(update.getValue());
+                Integer hash = working.contentHash(update.getKey());
+                if (hash != null && hash == text.hashCode()) continue;
+                working.add(update.getKey(), embeddingProvider.embed(text), text.hashCode());
+                embedded++;
+            }
+        }
+        dirty = true;
+        persist();
+        System.out.println("PetEmbeddingIndex ready: " + working.liveCount() + " pets, " + embedded + " embedded with " + embeddingProvider.id());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Pet pet) {
+        if (pet == null || pet.getId() == null || deferred(pet.getId(), pet)) return;
+        String text = textOf(pet);
+        lock.readLock().lock();
+        try {
+            Integer hash = index.contentHash(pet.getId());
+            if (hash != null && hash == text.hashCode()) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        // gọi provider ngoài khoá, provider thật có thể mất vài chục ms
+        float[] vector = embeddingProvider.embed(text);
+        lock.writeLock().lock();
+        try {
+            index.add(pet.getId(), vector, text.hashCode());
+            if (index.deletedCount() > Math.max(REBUILD_BATCH, index.liveCount())) index = index.compact();
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long petId) {
+        if (petId == null || deferred(petId, null)) return;
+        lock.writeLock().lock();
+        try {
+            index.remove(petId);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id của k pet gần nhất với pet đã cho (không gồm chính nó), null nếu pet chưa có trong chỉ mục.
+     */
+    public List<Long> similar(Long petId, int k) {
+        if (!ready) return null;
+        lock.readLock().lock();
+        try {
+            float[] vector = index.vector(petId);
+            if (vector == null) return null;
+            return keysOf(index.search(vector, k, Math.max(efSearch, k), petId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tìm theo câu tự nhiên ("chó nhỏ hiền ở Hà Nội"), trả về id theo độ tương đồng giảm dần;
+    // bỏ các pet có độ tương đồng cosine dưới minScore để câu không liên quan không trả về cả k pet
+    public List<Long> search(String query, int k, float minScore) {
+        if (!ready) return null;
+        float[] vector = embeddingProvider.embed(query);
+        List<HnswIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(vector, k, Math.max(efSearch, k), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> keys = new ArrayList<>(hits.size());
+        for (HnswIndex.Hit hit : hits) {
+            if (hit.score() >= minScore) keys.add(hit.key());
+        }
+        return keys;
+    }
+
+    @PreDestroy
+    public void persist() {
+        if (!ready || !dirty) return;
+        lock.readLock().lock();
+        try {
+            index.save(Path.of(indexPath), embeddingProvider.id());
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Cannot write embedding index " + indexPath + ": " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // true nếu chỉ mục chưa sẵn sàng: cập nhật được giữ lại cho rebuild đang chạy, hoặc bỏ qua nếu chưa rebuild
+    private boolean deferred(Long petId, Pet pet) {
+        if (ready) return false;
+        lock.writeLock().lock();
+        try {
+            if (ready) return false;
+            if (rebuilding) pending.put(petId, pet);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<Long> keysOf(List<HnswIndex.Hit> hits) {
+        List<Long> keys = new ArrayList<>(hits.size());
+        for (HnswIndex.Hit hit : hits) keys.add(hit.key());
+        return keys;
+    }
+
+    static String textOf(Pet pet) {
+        StringBuilder text = new StringBuilder();
+        append(text, pet.getName());
+        append(text, pet.getBreed());
+        append(text, pet.getDescription());
+        if (pet.getGender() != null) append(text, pet.getGender() == Pet.Gender.MALE ? "đực male" : "cái female");
+        if (pet.getAge() != null) append(text, pet.getAge() <= 2 ? "nhỏ young" : pet.getAge() <= 7 ? "trưởng thành adult" : "già senior");
+        if (Boolean.TRUE.equals(pet.getVaccinated())) append(text, "đã tiêm phòng vaccinated");
+        if (Boolean.TRUE.equals(pet.getDewormed())) append(text, "đã tẩy giun dewormed");
+        append(text, pet.getLocation());
+        return text.toString();
+    }
+
+    private static void append(StringBuilder text, String part) {
+        if (part == null || part.isBlank()) return;
+        if (text.length() > 0) text.append(". ");
+        text.append(part.trim());
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.pawfund.embedding;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+
+// Dùng EmbeddingModel do Spring AI cấu hình (hiện là PostgresML)
+public class SpringAiEmbeddingProvider implements EmbeddingProvider {
+    private final EmbeddingModel embeddingModel;
+    private final int dimensions;
+
+    public SpringAiEmbeddingProvider(EmbeddingModel embeddingModel) {
+        this.embeddingModel = embeddingModel;
+        this.dimensions = embeddingModel.dimensions();
+    }
+
+    @Override
+    public String id() {
+        return "spring-ai-" + embeddingModel.getClass().getSimpleName() + "-" + dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return EmbeddingProvider.normalize(embeddingModel.embed(text == null ? "" : text));
+    }
+}
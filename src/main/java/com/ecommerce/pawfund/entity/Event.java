@@ -33,6 +33,12 @@ public class Event {
     private String endTime;
     private Integer maxParticipants;
 
+    // Tăng mỗi lần IEventService.save, làm ETag/Last-Modified cho GET /api/events/{id}.
+    // Chỉ ghi khi INSERT, sau đó tăng bằng CatalogVersion.nextVersion
+    @Column(updatable = false)
+    private Long version;
+    private LocalDateTime updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "main_shelter_id")
     @com.fasterxml.jackson.annotation.JsonIgnoreProperties({"password", "refreshTokens", "verificationTokens"})
@@ -0,0 +1,35 @@
+package com.ecommerce.pawfund.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Một pet trong cart của khách; mỗi (token, pet) chỉ một dòng
+@Entity
+@Table(name = "guest_cart_items", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_guest_cart_items_token_pet", columnNames = {"guest_cart_token", "pet_id"})
+})
+public class GuestCartItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "guest_cart_token", nullable = false)
+    private String token;
+
+    @Column(name = "pet_id", nullable = false)
+    private Long petId;
+
+    private LocalDateTime addedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public Long getPetId() { return petId; }
+    public void setPetId(Long petId) { this.petId = petId; }
+
+    public LocalDateTime getAddedAt() { return addedAt; }
+    public void setAddedAt(LocalDateTime addedAt) { this.addedAt = addedAt; }
+}
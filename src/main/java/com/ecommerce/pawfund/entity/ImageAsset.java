@@ -0,0 +1,60 @@
+package com.ecommerce.pawfund.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Ảnh đã lưu theo SHA-256 của nội dung gốc: cùng nội dung thì dùng lại URL, không upload lần nữa
+@Entity
+@Table(name = "image_assets")
+public class ImageAsset {
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 1000)
+    private String url;
+
+    @Column(length = 1000)
+    private String cardUrl;
+
+    @Column(length = 1000)
+    private String thumbUrl;
+
+    private Integer width;
+    private Integer height;
+
+    // Kích thước file gốc, dùng cho metric số byte tiết kiệm được
+    private Long sizeBytes;
+
+    private LocalDateTime createdAt;
+
+    // Lần cuối được dedup trả lại (hoặc lúc tạo); worker xoá ảnh không xoá dòng vừa dùng, vì URL sắp được gắn vào pet
+    private LocalDateTime lastUsedAt;
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getCardUrl() { return cardUrl; }
+    public void setCardUrl(String cardUrl) { this.cardUrl = cardUrl; }
+
+    public String getThumbUrl() { return thumbUrl; }
+    public void setThumbUrl(String thumbUrl) { this.thumbUrl = thumbUrl; }
+
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getLastUsedAt() { return lastUsedAt; }
+    public void setLastUsedAt(LocalDateTime lastUsedAt) { this.lastUsedAt = lastUsedAt; }
+}
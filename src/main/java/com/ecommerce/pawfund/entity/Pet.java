@@ -1,10 +1,14 @@
 package com.ecommerce.pawfund.entity;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "pets")
+@Table(name = "pets", indexes = {
+    @Index(name = "idx_pets_status", columnList = "status"),
+    @Index(name = "idx_pets_age", columnList = "age")
+})
 public class Pet {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,8 +18,11 @@ public class Pet {
     private Integer age;
     private String breed;
     private String description;
-    @Column(length = 1000)
-    private String imageUrls; // Lưu "url1,url2,url3"
+    // Ảnh nằm ở bảng pet_images; giữ "url1,url2,url3" cho JSON, do IPetImageService gắn vào khi cần
+    @Transient
+    private String imageUrls;
+    @Transient
+    private List<PetImage> images;
     private String location;
 
     @Enumerated(EnumType.STRING)
@@ -27,10 +34,21 @@ public class Pet {
     private Boolean vaccinated;
     private Boolean dewormed;
 
+    // Toạ độ geocode từ location (hoặc lấy theo shelter), null nếu không xác định được
+    private Double latitude;
+    private Double longitude;
+
     @ManyToOne
     @JoinColumn(name = "shelter_id")
     private User shelter;
 
+    // Tăng mỗi lần ghi (IPetService.save, đổi ảnh), làm ETag/Last-Modified cho GET /api/pets/{id}.
+    // Không dùng @Version vì PUT /api/pets/{id} lưu một đối tượng mới dựng từ request.
+    // Chỉ ghi khi INSERT, sau đó luôn tăng bằng UPDATE trong DB (CatalogVersion.nextVersion/touchPet)
+    @Column(updatable = false)
+    private Long version;
+    private LocalDateTime updatedAt;
+
     public enum Status {
         AVAILABLE, ADOPTED, PENDING
     }
@@ -58,6 +76,9 @@ public class Pet {
     public String getImageUrls() { return imageUrls; }
     public void setImageUrls(String imageUrls) { this.imageUrls = imageUrls; }
 
+    public List<PetImage> getImages() { return images; }
+    public void setImages(List<PetImage> images) { this.images = images; }
+
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
 
@@ -73,6 +94,18 @@ public class Pet {
     public Boolean getDewormed() { return dewormed; }
     public void setDewormed(Boolean dewormed) { this.dewormed = dewormed; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
     public User getShelter() { return shelter; }
     public void setShelter(User shelter) { this.shelter = shelter; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 } 
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.ecommerce.pawfund.entity;
+
+import jakarta.persistence.*;
+
+// Một ảnh của pet; position nhỏ nhất là ảnh bìa
+@Entity
+@Table(name = "pet_images", indexes = {
+    @Index(name = "idx_pet_images_pet_position", columnList = "pet_id, position")
+})
+public class PetImage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pet_id", nullable = false)
+    private Long petId;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    // Bản full (cạnh dài tối đa 1600px); ảnh cũ là ảnh gốc
+    @Column(nullable = false, length = 1000)
+    private String url;
+
+    // Bản thu nhỏ cho thẻ danh sách và ảnh nhỏ, null với ảnh cũ
+    @Column(length = 1000)
+    private String cardUrl;
+
+    @Column(length = 1000)
+    private String thumbUrl;
+
+    private Integer width;
+    private Integer height;
+
+    // SHA-256 hex của nội dung ảnh gốc, null với ảnh cũ chưa tính
+    @Column(length = 64)
+    private String contentHash;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPetId() { return petId; }
+    public void setPetId(Long petId) { this.petId = petId; }
+
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getCardUrl() { return cardUrl; }
+    public void setCardUrl(String cardUrl) { this.cardUrl = cardUrl; }
+
+    public String getThumbUrl() { return thumbUrl; }
+    public void setThumbUrl(String thumbUrl) { this.thumbUrl = thumbUrl; }
+
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+}
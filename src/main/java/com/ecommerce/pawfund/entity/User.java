@@ -1,6 +1,8 @@
 package com.ecommerce.pawfund.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.util.Set;
 
 @Entity
@@ -16,9 +18,15 @@ public class User {
     private String fullName;
     private String phone;
     private String address;
+    // Toạ độ geocode từ address
+    private Double latitude;
+    private Double longitude;
     private boolean enabled = false;
     private java.time.LocalDateTime lastLogin;
 
+    // Lưu theo ordinal; PostgreSQL vốn tạo cột smallint, ghi rõ để H2 (MODE=PostgreSQL, không có TINYINT)
+    // của profile benchmark sinh cùng kiểu
+    @JdbcTypeCode(SqlTypes.SMALLINT)
     private Role role;
 
     // Getters, setters, constructors
@@ -42,6 +50,12 @@ public class User {
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
@@ -2,8 +2,6 @@ package com.ecommerce.pawfund.entity;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
 @Table(name = "user_carts")
@@ -16,8 +14,7 @@ public class UserCart {
     @JoinColumn(name = "user_id", unique = true)
     private User user;
 
-    @ElementCollection
-    private List<Long> petIds = new ArrayList<>();
+    // Danh sách pet nằm ở bảng user_cart_items (UserCartItemRepository), không nạp cùng cart
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -27,8 +24,6 @@ public class UserCart {
     public void setId(Long id) { this.id = id; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
-    public List<Long> getPetIds() { return petIds; }
-    public void setPetIds(List<Long> petIds) { this.petIds = petIds; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
@@ -0,0 +1,35 @@
+package com.ecommerce.pawfund.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Một pet trong cart của user; mỗi (cart, pet) chỉ một dòng, thêm/xoá chỉ đụng đúng dòng đó
+@Entity
+@Table(name = "user_cart_items", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_cart_items_cart_pet", columnNames = {"user_cart_id", "pet_id"})
+})
+public class UserCartItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_cart_id", nullable = false)
+    private Long userCartId;
+
+    @Column(name = "pet_id", nullable = false)
+    private Long petId;
+
+    private LocalDateTime addedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserCartId() { return userCartId; }
+    public void setUserCartId(Long userCartId) { this.userCartId = userCartId; }
+
+    public Long getPetId() { return petId; }
+    public void setPetId(Long petId) { this.petId = petId; }
+
+    public LocalDateTime getAddedAt() { return addedAt; }
+    public void setAddedAt(LocalDateTime addedAt) { this.addedAt = addedAt; }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.pawfund.geo;
+
+import com.ecommerce.pawfund.search.TextNormalizer;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Geocode offline chuỗi địa chỉ tự do (Pet.location, User.address) theo danh sách tỉnh/thành
+ * và quận/huyện trong geo/vn-gazetteer.csv. Không gọi dịch vụ bên ngoài.
+ * So khớp theo cụm từ đã bỏ dấu; ưu tiên quận/huyện thuộc tỉnh cũng có trong chuỗi,
+ * rồi tới tên dài nhất ("Vĩnh Long" thắng "Vinh").
+ */
+@Component
+public class Gazetteer {
+    private static final String RESOURCE = "geo/vn-gazetteer.csv";
+
+    private final List<Place> places = new ArrayList<>();
+    // token đầu tiên của tên -> các tên bắt đầu bằng token đó
+    private final Map<String, List<Name>> namesByFirstToken = new HashMap<>();
+
+    public Gazetteer() {
+        load();
+    }
+
+    public GeoPoint geocode(String text) {
+        List<String> tokens = TextNormalizer.tokens(text);
+        if (tokens.isEmpty()) return null;
+        Map<Place, Integer> matched = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            List<Name> candidates = namesByFirstToken.get(tokens.get(i));
+            if (candidates == null) continue;
+            for (Name name : candidates) {
+                if (matchesAt(tokens, i, name.tokens)) {
+                    matched.merge(name.place, name.length, Math::max);
+                }
+            }
+        }
+        if (matched.isEmpty()) return null;
+
+        Place best = null;
+        int bestScore = -1;
+        for (Map.Entry<Place, Integer> e : matched.entrySet()) {
+            Place place = e.getKey();
+            int score = e.getValue();
+            if (place.province != null) {
+                Place parent = findProvince(matched, place.province);
+                if (parent != null) {
+                    score += 1000;
+                } else if (hasOtherProvince(matched)) {
+                    // quận trùng tên ở tỉnh khác với tỉnh được ghi rõ -> bỏ qua
+                    continue;
+                }
+            }
+            if (score > bestScore) {
+                best = place;
+                bestScore = score;
+            }
+        }
+        return best != null ? best.point : null;
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    private static boolean matchesAt(List<String> tokens, int start, String[] name) {
+        if (start + name.length > tokens.size()) return false;
+        for (int k = 0; k < name.length; k++) {
+            if (!tokens.get(start + k).equals(name[k])) return false;
+        }
+        return true;
+    }
+
+    private static Place findProvince(Map<Place, Integer> matched, String province) {
+        for (Place p : matched.keySet()) {
+            if (p.province == null && p.key.equals(province)) return p;
+        }
+        return null;
+    }
+
+    private static boolean hasOtherProvince(Map<Place, Integer> matched) {
+        for (Place p : matched.keySet()) {
+            if (p.province == null) return true;
+        }
+        return false;
+    }
+
+    private void load() {
+        ClassPathResource resource = new ClassPathResource(RESOURCE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] cols = line.split(",", -1);
+                if (cols.length < 5) continue;
+                boolean district = "district".equals(cols[0]);
+                Place place = new Place(
+                    key(cols[1]),
+                    district ? key(cols[2]) : null,
+                    new GeoPoint(Double.parseDouble(cols[3]), Double.parseDouble(cols[4])));
+                places.add(place);
+                addName(place, cols[1]);
+                if (cols.length > 5 && !cols[5].isEmpty()) {
+                    for (String alias : cols[5].split("\\|")) addName(place, alias);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + RESOURCE, e);
+        }
+    }
+
+    private void addName(Place place, String name) {
+        List<String> tokens = TextNormalizer.tokens(name);
+        if (tokens.isEmpty()) return;
+        Name entry = new Name(place, tokens.toArray(new String[0]), String.join(" ", tokens).length());
+        namesByFirstToken.computeIfAbsent(tokens.get(0), k -> new ArrayList<>()).add(entry);
+    }
+
+    private static String key(String name) {
+        return String.join(" ", TextNormalizer.tokens(name));
+    }
+
+    private record Place(String key, String province, GeoPoint point) {}
+
+    private record Name(Place place, String[] tokens, int length) {}
+}
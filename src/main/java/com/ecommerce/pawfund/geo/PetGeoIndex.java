@@ -0,0 +1,254 @@
+package com.ecommerce.pawfund.geo;
+
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.repository.PetRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục lưới cho toạ độ pet: mỗi ô CELL_DEGREES x CELL_DEGREES độ giữ danh sách id pet.
+ * Tìm theo bán kính chỉ duyệt các ô giao với khung bao quanh vòng tròn, rồi lọc bằng haversine.
+ * Khi khởi động, pet/user cũ chưa có toạ độ được geocode bằng Gazetteer và ghi lại vào DB.
+ */
+@Component
+public class PetGeoIndex {
+    // ~11 km theo vĩ độ, đủ nhỏ cho bán kính vài km trong nội thành
+    private static final double CELL_DEGREES = 0.1;
+    private static final int REBUILD_BATCH = 1000;
+
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private Gazetteer gazetteer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, double[]> points = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        backfillUsers();
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+            List<Object[]> updates = new ArrayList<>();
+            int page = 0;
+            Page<Pet> batch;
+            do {
+                batch = petRepository.findAll(PageRequest.of(page++, REBUILD_BATCH, Sort.by("id")));
+                for (Pet pet : batch) {
+                    if (pet.getLatitude() == null || pet.getLongitude() == null) {
+                        GeoPoint point = locate(pet);
+                        if (point == null) continue;
+                        pet.setLatitude(point.lat());
+                        pet.setLongitude(point.lon());
+                        updates.add(new Object[] { point.lat(), point.lon(), pet.getId() });
+                    }
+                    add(pet.getId(), pet.getLatitude(), pet.getLongitude());
+                }
+            } while (batch.hasNext());
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE pets SET latitude = ?, longitude = ? WHERE id = ?", updates);
+            }
+            ready = true;
+            System.out.println("PetGeoIndex built: " + points.size() + " pets in " + cells.size() + " cells, " + updates.size() + " geocoded");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Toạ độ cho pet: geocode location của pet, không được thì lấy toạ độ shelter.
+     */
+    public GeoPoint locate(Pet pet) {
+        GeoPoint point = gazetteer.geocode(pet.getLocation());
+        if (point != null) return point;
+        if (pet.getShelter() != null && pet.getShelter().getLatitude() != null && pet.getShelter().getLongitude() != null) {
+            return new GeoPoint(pet.getShelter().getLatitude(), pet.getShelter().getLongitude());
+        }
+        return null;
+    }
+
+    public void index(Pet pet) {
+        if (pet == null || pet.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            // rebuild giữ khoá ghi suốt quá trình nạp, nên kiểm tra ready sau khi có khoá
+            if (!ready) return;
+            remove(pet.getId().longValue());
+            if (pet.getLatitude() != null && pet.getLongitude() != null) {
+                add(pet.getId(), pet.getLatitude(), pet.getLongitude());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long petId) {
+        if (petId == null) return;
+        lock.writeLock().lock();
+        try {
+            if (!ready) return;
+            remove(petId.longValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Shelter đổi địa chỉ: các pet có location không geocode được đang dùng toạ độ của shelter,
+     * ghi lại toạ độ mới (hoặc bỏ toạ độ nếu địa chỉ mới không geocode được) vào DB và chỉ mục.
+     */
+    public void relocateShelterPets(Long shelterId, Double lat, Double lon) {
+        if (shelterId == null) return;
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, location, latitude, longitude FROM pets WHERE shelter_id = ?", rs -> {
+            if (gazetteer.geocode(rs.getString("location")) != null) return;
+            Double oldLat = (Double) rs.getObject("latitude");
+            Double oldLon = (Double) rs.getObject("longitude");
+            if (Objects.equals(oldLat, lat) && Objects.equals(oldLon, lon)) return;
+            updates.add(new Object[] { lat, lon, rs.getLong("id") });
+        }, shelterId);
+        if (updates.isEmpty()) return;
+        jdbcTemplate.batchUpdate("UPDATE pets SET latitude = ?, longitude = ? WHERE id = ?", updates);
+        lock.writeLock().lock();
+        try {
+            if (!ready) return;
+            for (Object[] update : updates) {
+                long petId = (Long) update[2];
+                remove(petId);
+                if (lat != null && lon != null) add(petId, lat, lon);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Relocated " + updates.size() + " pets of shelter " + shelterId);
+    }
+
+    /**
+     * Id pet trong bán kính radiusKm quanh (lat, lon), sắp theo khoảng cách tăng dần.
+     */
+    public List<Long> within(double lat, double lon, double radiusKm) {
+        GeoPoint center = new GeoPoint(lat, lon);
+        double dLat = radiusKm / 111.0;
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        double dLon = Math.min(180, radiusKm / (111.32 * cosLat));
+        int minRow = cell(lat - dLat), maxRow = cell(lat + dLat);
+        int minCol = cell(lon - dLon), maxCol = cell(lon + dLon);
+
+        lock.readLock().lock();
+        try {
+            List<long[]> hits = new ArrayList<>();
+            // lưới thưa: nếu khung bao có nhiều ô hơn số ô đang dùng thì duyệt thẳng các ô đang có
+            long boxCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+            if (boxCells > cells.size()) {
+                for (Map.Entry<Long, Cell> e : cells.entrySet()) {
+                    int row = (int) (e.getKey() >> 32), col = (int) (long) e.getKey();
+                    if (row < minRow || row > maxRow || col < minCol || col > maxCol) continue;
+                    collect(e.getValue(), center, radiusKm, hits);
+                }
+            } else {
+                for (int row = minRow; row <= maxRow; row++) {
+                    for (int col = minCol; col <= maxCol; col++) {
+                        Cell c = cells.get(key(row, col));
+                        if (c != null) collect(c, center, radiusKm, hits);
+                    }
+                }
+            }
+            // [id, khoảng cách dạng bit double] -> sắp theo khoảng cách rồi id
+            hits.sort((a, b) -> {
+                int cmp = Double.compare(Double.longBitsToDouble(a[1]), Double.longBitsToDouble(b[1]));
+                return cmp != 0 ? cmp : Long.compare(a[0], b[0]);
+            });
+            List<Long> ids = new ArrayList<>(hits.size());
+            for (long[] hit : hits) ids.add(hit[0]);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Cell c, GeoPoint center, double radiusKm, List<long[]> hits) {
+        for (int i = 0; i < c.size; i++) {
+            double[] p = points.get(c.ids[i]);
+            double distance = center.distanceKm(p[0], p[1]);
+            if (distance <= radiusKm) hits.add(new long[] { c.ids[i], Double.doubleToLongBits(distance) });
+        }
+    }
+
+    private void backfillUsers() {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, address FROM users WHERE latitude IS NULL AND address IS NOT NULL", rs -> {
+            GeoPoint point = gazetteer.geocode(rs.getString("address"));
+            if (point != null) updates.add(new Object[] { point.lat(), point.lon(), rs.getLong("id") });
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE users SET latitude = ?, longitude = ? WHERE id = ?", updates);
+        }
+    }
+
+    private void add(long petId, double lat, double lon) {
+        points.put(petId, new double[] { lat, lon });
+        cells.computeIfAbsent(key(cell(lat), cell(lon)), k -> new Cell()).add(petId);
+    }
+
+    private void remove(long petId) {
+        double[] p = points.remove(petId);
+        if (p == null) return;
+        long key = key(cell(p[0]), cell(p[1]));
+        Cell c = cells.get(key);
+        if (c != null && c.remove(petId) && c.size == 0) cells.remove(key);
+    }
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static final class Cell {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
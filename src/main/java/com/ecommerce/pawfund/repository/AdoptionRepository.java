@@ -1,6 +1,7 @@
 package com.ecommerce.pawfund.repository;
 
 import com.ecommerce.pawfund.entity.Adoption;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.CrudRepository;
 import java.util.List;
@@ -8,4 +9,6 @@ import java.util.List;
 public interface AdoptionRepository extends JpaRepository<Adoption, Long>, CrudRepository<Adoption, Long> {
     List<Adoption> findByUserId(Long userId);
     List<Adoption> findByPetId(Long petId);
+    // Keyset: seek theo khoá chính thay vì OFFSET
+    List<Adoption> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 } 
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.ecommerce.pawfund.repository;
 
 import com.ecommerce.pawfund.entity.Donation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface DonationRepository extends JpaRepository<Donation, Long> {
     List<Donation> findByUser_Id(Long userId);
+    // Keyset: seek theo khoá chính thay vì OFFSET
+    List<Donation> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 } 
\ No newline at end of file
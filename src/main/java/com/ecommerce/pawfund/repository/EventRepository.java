@@ -1,11 +1,13 @@
 package com.ecommerce.pawfund.repository;
 
+import com.ecommerce.pawfund.cache.VersionStamp;
 import com.ecommerce.pawfund.entity.Event;
 import com.ecommerce.pawfund.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
     // Find events by shelter (multiple relationship)
@@ -19,4 +21,14 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // Find events by donor (multiple relationship)
     @Query("SELECT e FROM Event e JOIN e.donors d WHERE d.id = :donorId")
     List<Event> findByDonorId(@Param("donorId") Long donorId);
-} 
\ No newline at end of file
+
+    // Full-text search trên cột search_vector (chỉ có khi FullTextSearchSupport.isActive())
+    @Query(value = "SELECT e.id FROM events e WHERE e.search_vector @@ to_tsquery('simple', :query) " +
+                   "ORDER BY ts_rank(e.search_vector, to_tsquery('simple', :query)) DESC, e.id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> searchIdsByFullText(@Param("query") String query, @Param("limit") int limit);
+
+    // Chỉ đọc version/updated_at để trả lời If-None-Match, không tải entity
+    @Query("SELECT new com.ecommerce.pawfund.cache.VersionStamp(e.version, e.updatedAt) FROM Event e WHERE e.id = :id")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+} 
@@ -0,0 +1,56 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.GuestCartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface GuestCartItemRepository extends JpaRepository<GuestCartItem, Long> {
+    @Query("SELECT i.petId FROM GuestCartItem i WHERE i.token = :token ORDER BY i.id")
+    List<Long> findPetIds(@Param("token") String token);
+
+    // Item của nhiều cart trong một câu truy vấn, dùng khi nạp lại store lúc khởi động
+    @Query("SELECT i FROM GuestCartItem i WHERE i.token IN :tokens ORDER BY i.token, i.id")
+    List<GuestCartItem> findByTokens(@Param("tokens") Collection<String> tokens);
+
+    // Pet đã có trong cart thì bỏ qua; như UserCartItemRepository.addItem, không ghi cột xung đột
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO guest_cart_items (guest_cart_token, pet_id, added_at) VALUES (:token, :petId, now()) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addItem(@Param("token") String token, @Param("petId") Long petId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GuestCartItem i WHERE i.token = :token AND i.petId = :petId")
+    int removeItem(@Param("token") String token, @Param("petId") Long petId);
+
+    // Xoá các pet không còn trong cart (petIds không được rỗng, cart rỗng thì dùng clear)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GuestCartItem i WHERE i.token = :token AND i.petId NOT IN :petIds")
+    int retainOnly(@Param("token") String token, @Param("petIds") Collection<Long> petIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GuestCartItem i WHERE i.token = :token")
+    int clear(@Param("token") String token);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GuestCartItem i WHERE i.token IN :tokens")
+    int clearAll(@Param("tokens") Collection<String> tokens);
+
+    // Item của các cart hết hạn, gọi trước GuestCartRepository.deleteByUpdatedAtBefore
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GuestCartItem i WHERE i.token IN " +
+           "(SELECT g.token FROM GuestCart g WHERE g.updatedAt < :cutoff)")
+    int deleteForCartsUpdatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
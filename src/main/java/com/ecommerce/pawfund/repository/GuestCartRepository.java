@@ -2,6 +2,18 @@ package com.ecommerce.pawfund.repository;
 
 import com.ecommerce.pawfund.entity.GuestCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface GuestCartRepository extends JpaRepository<GuestCart, String> {
-} 
\ No newline at end of file
+    // Cart còn hạn, dùng khi nạp lại store lúc khởi động (item lấy riêng qua GuestCartItemRepository.findByTokens)
+    @Query("SELECT g FROM GuestCart g WHERE g.updatedAt >= :cutoff")
+    List<GuestCart> findUpdatedSince(@Param("cutoff") LocalDateTime cutoff);
+
+    @Transactional
+    long deleteByUpdatedAtBefore(LocalDateTime cutoff);
+}
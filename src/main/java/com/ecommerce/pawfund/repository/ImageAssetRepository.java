@@ -0,0 +1,35 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.ImageAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageAssetRepository extends JpaRepository<ImageAsset, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ImageAsset a WHERE a.url IN :urls OR a.cardUrl IN :urls OR a.thumbUrl IN :urls")
+    int deleteByAnyUrlIn(@Param("urls") Collection<String> urls);
+
+    // Chỉ xoá các dòng không được dùng lại từ cutoff; dòng vừa dùng được giữ (lease của dedup)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ImageAsset a WHERE (a.url IN :urls OR a.cardUrl IN :urls OR a.thumbUrl IN :urls) " +
+           "AND COALESCE(a.lastUsedAt, a.createdAt) < :cutoff")
+    int deleteUnusedByAnyUrlIn(@Param("urls") Collection<String> urls, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT a FROM ImageAsset a WHERE a.url IN :urls OR a.cardUrl IN :urls OR a.thumbUrl IN :urls")
+    List<ImageAsset> findByAnyUrlIn(@Param("urls") Collection<String> urls);
+
+    // Dedup trả lại ảnh: dời last_used_at trong một câu UPDATE; 0 dòng nghĩa là ảnh đã bị worker xoá
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageAsset a SET a.lastUsedAt = :now WHERE a.contentHash = :contentHash")
+    int touch(@Param("contentHash") String contentHash, @Param("now") LocalDateTime now);
+}
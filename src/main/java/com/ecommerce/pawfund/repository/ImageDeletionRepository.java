@@ -0,0 +1,10 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.ImageDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+    long countByNextAttemptAtIsNotNull();
+
+    long countByNextAttemptAtIsNull();
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.pawfund.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Điều kiện lọc pet dạng SQL thuần (bảng pets, alias p) cho các truy vấn chạy qua JDBC
+ * (export, facet). Cùng ngữ nghĩa với PetSpecifications.filter, chuỗi rỗng = không lọc.
+ */
+public final class PetFilterSql {
+    private PetFilterSql() {}
+
+    /**
+     * Các điều kiện " AND ..." cho WHERE, tham số thêm vào params theo đúng thứ tự dấu ?.
+     * ids != null: chỉ các pet có id trong ids (một tham số mảng, không giới hạn số phần tử như IN).
+     */
+    public static String conditions(String status, String breed, String search, Integer age, String location,
+                                    Integer ageMin, Integer ageMax, String gender, Collection<Long> ids,
+                                    List<Object> params) {
+        StringBuilder sql = new StringBuilder();
+        if (ids != null) {
+            sql.append(" AND p.id = ANY(?)");
+            params.add(ids.toArray(new Long[0]));
+        }
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND p.status = ?");
+            params.add(status.toUpperCase(Locale.ROOT));
+        }
+        if (gender != null && !gender.isEmpty()) {
+            sql.append(" AND p.gender = ?");
+            params.add(gender.toUpperCase(Locale.ROOT));
+        }
+        if (breed != null && !breed.isEmpty()) {
+            sql.append(" AND LOWER(p.breed) LIKE ? ESCAPE '\\'");
+            params.add(likePattern(breed));
+        }
+        if (location != null && !location.isEmpty()) {
+            sql.append(" AND LOWER(p.location) LIKE ? ESCAPE '\\'");
+            params.add(likePattern(location));
+        }
+        if (search != null && !search.isEmpty()) {
+            sql.append(" AND (LOWER(p.name) LIKE ? ESCAPE '\\' OR LOWER(p.description) LIKE ? ESCAPE '\\')");
+            params.add(likePattern(search));
+            params.add(likePattern(search));
+        }
+        if (age != null) {
+            sql.append(" AND p.age = ?");
+            params.add(age);
+        }
+        if (ageMin != null) {
+            sql.append(" AND p.age >= ?");
+            params.add(ageMin);
+        }
+        if (ageMax != null) {
+            sql.append(" AND p.age <= ?");
+            params.add(ageMax);
+        }
+        return sql.toString();
+    }
+
+    // Gắn params vào câu lệnh; Long[] được gửi dưới dạng mảng bigint
+    public static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        Connection con = ps.getConnection();
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof Long[] values) {
+                ps.setArray(i + 1, con.createArrayOf("bigint", values));
+            } else {
+                ps.setObject(i + 1, param);
+            }
+        }
+    }
+
+    private static String likePattern(String value) {
+        String escaped = value.toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.PetImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PetImageRepository extends JpaRepository<PetImage, Long> {
+    List<PetImage> findByPetIdOrderByPositionAscIdAsc(Long petId);
+
+    // Tất cả ảnh của nhiều pet trong một câu truy vấn
+    List<PetImage> findByPetIdInOrderByPetIdAscPositionAscIdAsc(Collection<Long> petIds);
+
+    // Chỉ ảnh bìa (position nhỏ nhất) của mỗi pet, dùng cho trang danh sách
+    @Query("SELECT i FROM PetImage i WHERE i.petId IN :petIds AND i.position = " +
+           "(SELECT MIN(j.position) FROM PetImage j WHERE j.petId = i.petId) ORDER BY i.petId, i.id")
+    List<PetImage> findCovers(@Param("petIds") Collection<Long> petIds);
+
+    @Query("SELECT COALESCE(MAX(i.position), -1) FROM PetImage i WHERE i.petId = :petId")
+    int findMaxPosition(@Param("petId") Long petId);
+
+    // Khoá dòng pet tới hết transaction: hai lần thêm ảnh cho cùng pet đọc MAX(position) lần lượt,
+    // lần sau thấy ảnh lần trước đã commit nên không trùng position
+    @Query(value = "SELECT id FROM pets WHERE id = :petId FOR UPDATE", nativeQuery = true)
+    Long lockPet(@Param("petId") Long petId);
+
+    long countByPetId(Long petId);
+
+    List<PetImage> findByPetIdAndUrl(Long petId, String url);
+
+    // Các dòng còn dùng một trong các URL (bản full, card hoặc thumb), ảnh có thể dùng chung nhờ dedup
+    @Query("SELECT i FROM PetImage i WHERE i.url IN :urls OR i.cardUrl IN :urls OR i.thumbUrl IN :urls")
+    List<PetImage> findReferencing(@Param("urls") Collection<String> urls);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PetImage i WHERE i.petId = :petId AND i.url = :url")
+    int deleteByPetIdAndUrl(@Param("petId") Long petId, @Param("url") String url);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PetImage i WHERE i.petId = :petId")
+    int deleteByPetId(@Param("petId") Long petId);
+}
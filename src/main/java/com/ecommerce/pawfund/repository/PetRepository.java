@@ -1,17 +1,41 @@
 package com.ecommerce.pawfund.repository;
 
+import com.ecommerce.pawfund.cache.VersionStamp;
+import com.ecommerce.pawfund.dto.PetCardView;
 import com.ecommerce.pawfund.entity.Pet;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface PetRepository extends JpaRepository<Pet, Long> {
+public interface PetRepository extends JpaRepository<Pet, Long>, JpaSpecificationExecutor<Pet>, PetRepositoryCustom {
     List<Pet> findByBreed(String breed);
     List<Pet> findByStatus(Pet.Status status);
     List<Pet> findByLocation(String location);
 
-    // Đã xoá method findByFilter dùng @Query JPQL
+    // Full-text search trên cột search_vector (chỉ có khi FullTextSearchSupport.isActive())
+    @Query(value = "SELECT p.id FROM pets p WHERE p.search_vector @@ to_tsquery('simple', :query) " +
+                   "ORDER BY ts_rank(p.search_vector, to_tsquery('simple', :query)) DESC, p.id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> searchIdsByFullText(@Param("query") String query, @Param("limit") int limit);
+
+    // Lọc + phân trang chạy trong DB qua PetSpecifications (findAll(spec, pageable))
+
+    // Thẻ pet cho trang danh sách/cart: một câu SELECT chỉ gồm các cột hiển thị, LEFT JOIN shelter
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.age AS age, p.breed AS breed, " +
+           "p.location AS location, p.status AS status, p.gender AS gender, p.vaccinated AS vaccinated, " +
+           "p.dewormed AS dewormed, p.latitude AS latitude, p.longitude AS longitude, s.id AS shelterId, " +
+           "s.username AS shelterUsername, s.email AS shelterEmail, s.fullName AS shelterFullName, " +
+           "s.phone AS shelterPhone, s.address AS shelterAddress " +
+           "FROM Pet p LEFT JOIN p.shelter s WHERE p.id IN :ids")
+    List<PetCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Chỉ đọc version/updated_at để trả lời If-None-Match, không tải entity
+    @Query("SELECT new com.ecommerce.pawfund.cache.VersionStamp(p.version, p.updatedAt) FROM Pet p WHERE p.id = :id")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
 } 
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.Pet;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Các truy vấn của PetRepository cần dùng Criteria API trực tiếp
+public interface PetRepositoryCustom {
+    /**
+     * Đếm pet theo breed, location, gender, status và nhóm tuổi cho cùng một bộ lọc bằng một câu SQL:
+     * năm GROUP BY một cột nối bằng UNION ALL trên cùng một CTE đã lọc (bảng chỉ được quét một lần).
+     * search là tìm LIKE theo name/description; ids != null giới hạn trong các id đó.
+     * Key ngoài là tên facet, key trong là giá trị.
+     */
+    Map<String, Map<String, Long>> countFacets(String status, String breed, String search, Integer age, String location,
+                                               Integer ageMin, Integer ageMax, String gender, Collection<Long> ids);
+
+    /**
+     * Số pet theo status, gender và nhóm tuổi bằng một câu SELECT với các SUM(CASE ...),
+     * shelterId = null là toàn bộ catalog. Key giữ nguyên như response của GET /api/pets/stats.
+     */
+    Map<String, Long> countStats(Long shelterId);
+
+    // Chỉ lấy cột id của các pet khớp spec, không tải entity
+    List<Long> findIds(Specification<Pet> spec);
+
+    // Trang id theo spec + pageable (sort của pageable), đếm tổng bằng COUNT riêng khi cần
+    Page<Long> findIds(Specification<Pet> spec, Pageable pageable);
+
+    // limit id đầu tiên theo sort, không đếm tổng (dùng cho cursor)
+    List<Long> findIds(Specification<Pet> spec, Sort sort, int limit);
+}
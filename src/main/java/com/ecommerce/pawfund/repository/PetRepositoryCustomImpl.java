@@ -0,0 +1,177 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.Pet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PetRepositoryCustomImpl implements PetRepositoryCustom {
+    public static final String AGE_YOUNG = "young";   // <= 2 tuổi
+    public static final String AGE_ADULT = "adult";   // 3 - 7 tuổi
+    public static final String AGE_SENIOR = "senior"; // > 7 tuổi
+    public static final String UNKNOWN = "unknown";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> findIds(Specification<Pet> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Pet> root = query.from(Pet.class);
+        query.select(root.get("id"));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Page<Long> findIds(Specification<Pet> spec, Pageable pageable) {
+        TypedQuery<Long> query = idQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // Trang đầu chưa đầy thì tổng chính là số dòng, không cần COUNT
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Pet> spec, Sort sort, int limit) {
+        return idQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<Long> idQuery(Specification<Pet> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Pet> root = query.from(Pet.class);
+        query.select(root.get("id"));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        if (sort.isSorted()) query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Pet> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Pet> root = query.from(Pet.class);
+        query.select(cb.count(root));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> countFacets(String status, String breed, String search, Integer age, String location,
+                                                      Integer ageMin, Integer ageMax, String gender, Collection<Long> ids) {
+        List<Object> params = new ArrayList<>();
+        String sql =
+            "WITH f AS (SELECT p.breed, p.location, p.gender, p.status, " +
+            "CASE WHEN p.age IS NULL THEN '" + UNKNOWN + "' WHEN p.age <= 2 THEN '" + AGE_YOUNG + "' " +
+            "WHEN p.age <= 7 THEN '" + AGE_ADULT + "' ELSE '" + AGE_SENIOR + "' END AS age_group " +
+            "FROM pets p WHERE 1 = 1" +
+            PetFilterSql.conditions(status, breed, search, age, location, ageMin, ageMax, gender, ids, params) + ") " +
+            "SELECT 'breed' AS facet, breed AS facet_value, COUNT(*) AS n FROM f GROUP BY breed " +
+            "UNION ALL SELECT 'location', location, COUNT(*) FROM f GROUP BY location " +
+            "UNION ALL SELECT 'gender', gender, COUNT(*) FROM f GROUP BY gender " +
+            "UNION ALL SELECT 'status', status, COUNT(*) FROM f GROUP BY status " +
+            "UNION ALL SELECT 'ageGroup', age_group, COUNT(*) FROM f GROUP BY age_group";
+
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (String facet : List.of("breed", "location", "gender", "status", "ageGroup")) {
+            facets.put(facet, new LinkedHashMap<>());
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            PetFilterSql.bind(ps, params);
+            return ps;
+        }, rs -> {
+            // nhóm NULL mang nhãn "unknown", cộng dồn nếu cột cũng có đúng giá trị đó
+            facets.get(rs.getString("facet")).merge(label(rs.getString("facet_value")), rs.getLong("n"), Long::sum);
+        });
+        facets.replaceAll((name, counts) -> sortByCountDesc(counts));
+        return facets;
+    }
+
+    @Override
+    public Map<String, Long> countStats(Long shelterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Pet> root = query.from(Pet.class);
+        Expression<Integer> age = root.get("age");
+
+        Map<String, Predicate> conditions = new LinkedHashMap<>();
+        conditions.put("availablePets", cb.equal(root.get("status"), Pet.Status.AVAILABLE));
+        conditions.put("adoptedPets", cb.equal(root.get("status"), Pet.Status.ADOPTED));
+        conditions.put("pendingPets", cb.equal(root.get("status"), Pet.Status.PENDING));
+        conditions.put("malePets", cb.equal(root.get("gender"), Pet.Gender.MALE));
+        conditions.put("femalePets", cb.equal(root.get("gender"), Pet.Gender.FEMALE));
+        conditions.put("youngPets", cb.le(age, 2));
+        conditions.put("adultPets", cb.and(cb.gt(age, 2), cb.le(age, 7)));
+        conditions.put("seniorPets", cb.gt(age, 7));
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(cb.count(root));
+        for (Predicate condition : conditions.values()) {
+            selections.add(cb.sum(cb.<Long>selectCase().when(condition, 1L).otherwise(0L)));
+        }
+        query.multiselect(selections);
+        if (shelterId != null) query.where(cb.equal(root.get("shelter").get("id"), shelterId));
+
+        Object[] row = entityManager.createQuery(query).getSingleResult();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("totalPets", toLong(row[0]));
+        int i = 1;
+        for (String key : conditions.keySet()) {
+            stats.put(key, toLong(row[i++]));
+        }
+        return stats;
+    }
+
+    // SUM trên tập rỗng trả về null
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static String label(Object value) {
+        if (value == null) return UNKNOWN;
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+
+    private static Map<String, Long> sortByCountDesc(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.Pet;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+// Các điều kiện lọc pet dùng chung cho PetRepository (ghép bằng and())
+public final class PetSpecifications {
+    private PetSpecifications() {}
+
+    public static Specification<Pet> hasStatus(String status) {
+        if (status == null || status.isEmpty()) return null;
+        Pet.Status value = parseEnum(Pet.Status.class, status);
+        if (value == null) return (root, query, cb) -> cb.disjunction();
+        return (root, query, cb) -> cb.equal(root.get("status"), value);
+    }
+
+    public static Specification<Pet> hasGender(String gender) {
+        if (gender == null || gender.isEmpty()) return null;
+        Pet.Gender value = parseEnum(Pet.Gender.class, gender);
+        if (value == null) return (root, query, cb) -> cb.disjunction();
+        return (root, query, cb) -> cb.equal(root.get("gender"), value);
+    }
+
+    public static Specification<Pet> breedContains(String breed) {
+        return fieldContains("breed", breed);
+    }
+
+    public static Specification<Pet> locationContains(String location) {
+        return fieldContains("location", location);
+    }
+
+    // Tìm theo tên hoặc mô tả
+    public static Specification<Pet> nameOrDescriptionContains(String search) {
+        if (search == null || search.isEmpty()) return null;
+        String pattern = likePattern(search);
+        return (root, query, cb) -> cb.or(
+            cb.like(cb.lower(root.get("name")), pattern, '\\'),
+            cb.like(cb.lower(root.get("description")), pattern, '\\')
+        );
+    }
+
+    public static Specification<Pet> idIn(Collection<Long> ids) {
+        if (ids == null) return null;
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Pet> idGreaterThan(Long id) {
+        if (id == null) return null;
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Pet> hasAge(Integer age) {
+        if (age == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("age"), age);
+    }
+
+    public static Specification<Pet> ageAtLeast(Integer ageMin) {
+        if (ageMin == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("age"), ageMin);
+    }
+
+    public static Specification<Pet> ageAtMost(Integer ageMax) {
+        if (ageMax == null) return null;
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("age"), ageMax);
+    }
+
+    public static Specification<Pet> filter(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender) {
+        return Specification.allOf(
+            hasStatus(status),
+            breedContains(breed),
+            nameOrDescriptionContains(search),
+            hasAge(age),
+            locationContains(location),
+            ageAtLeast(ageMin),
+            ageAtMost(ageMax),
+            hasGender(gender)
+        );
+    }
+
+    private static Specification<Pet> fieldContains(String field, String value) {
+        if (value == null || value.isEmpty()) return null;
+        String pattern = likePattern(value);
+        return (root, query, cb) -> cb.like(cb.lower(root.get(field)), pattern, '\\');
+    }
+
+    private static String likePattern(String value) {
+        String escaped = value.toLowerCase()
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) return constant;
+        }
+        return null;
+    }
+}
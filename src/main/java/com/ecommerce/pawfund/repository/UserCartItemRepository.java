@@ -0,0 +1,35 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.UserCartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Mỗi thao tác trên cart là một câu lệnh trên đúng các dòng liên quan, không xoá rồi ghi lại cả danh sách
+public interface UserCartItemRepository extends JpaRepository<UserCartItem, Long> {
+    // Thứ tự thêm vào
+    @Query("SELECT i.petId FROM UserCartItem i WHERE i.userCartId = :cartId ORDER BY i.id")
+    List<Long> findPetIds(@Param("cartId") Long cartId);
+
+    // Pet đã có trong cart thì không làm gì (trả về 0). Không ghi cột xung đột: id tự sinh nên chỉ có thể trùng
+    // ở ràng buộc (cart, pet), và H2 chế độ PostgreSQL (benchmark) chỉ hiểu dạng ON CONFLICT DO NOTHING
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO user_cart_items (user_cart_id, pet_id, added_at) VALUES (:cartId, :petId, now()) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addItem(@Param("cartId") Long cartId, @Param("petId") Long petId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserCartItem i WHERE i.userCartId = :cartId AND i.petId = :petId")
+    int removeItem(@Param("cartId") Long cartId, @Param("petId") Long petId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserCartItem i WHERE i.userCartId = :cartId")
+    int clear(@Param("cartId") Long cartId);
+}
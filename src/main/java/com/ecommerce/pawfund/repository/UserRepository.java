@@ -1,6 +1,7 @@
 package com.ecommerce.pawfund.repository;
 
 import com.ecommerce.pawfund.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 import java.util.List;
@@ -10,4 +11,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     List<User> findByRole(User.Role role);
     List<User> findByRoleIn(List<User.Role> roles);
+    // Keyset: seek theo khoá chính thay vì OFFSET
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 } 
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.ecommerce.pawfund.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Tạo cột tsvector (generated, tự cập nhật khi ghi) + GIN index cho bảng pets và events
+ * khi pawfund.search.mode=fulltext và DB là PostgreSQL. Với DB khác (H2 khi test),
+ * isActive() = false và nơi gọi lùi về LIKE.
+ */
+@Component
+public class FullTextSearchSupport {
+    private static final List<String> POSTGRES_DDL = List.of(
+        "CREATE EXTENSION IF NOT EXISTS unaccent",
+        // unaccent() không IMMUTABLE nên phải bọc lại mới dùng được trong generated column
+        "CREATE OR REPLACE FUNCTION pawfund_unaccent(text) RETURNS text LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT " +
+            "AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$",
+        "ALTER TABLE pets ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(name, ''))), 'A') || " +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(breed, ''))), 'B') || " +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(location, ''))), 'C') || " +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(description, ''))), 'D')) STORED",
+        "CREATE INDEX IF NOT EXISTS idx_pets_search_vector ON pets USING GIN (search_vector)",
+        "ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(title, ''))), 'A') || " +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(location, ''))), 'B') || " +
+            "setweight(to_tsvector('simple', pawfund_unaccent(coalesce(description, ''))), 'C')) STORED",
+        "CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector)"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${pawfund.search.mode:index}")
+    private String mode;
+
+    private volatile boolean active;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (SearchMode.from(mode) != SearchMode.FULLTEXT) return;
+        String product = jdbcTemplate.execute((Connection c) -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            System.out.println("Full-text search requires PostgreSQL (found " + product + "), falling back to LIKE");
+            return;
+        }
+        try {
+            for (String ddl : POSTGRES_DDL) {
+                jdbcTemplate.execute(ddl);
+            }
+            active = true;
+            System.out.println("Full-text search columns ready on pets and events");
+        } catch (Exception e) {
+            System.err.println("Failed to set up full-text search, falling back to LIKE: " + e.getMessage());
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Đổi chuỗi người dùng nhập thành tsquery dạng tiền tố: "cho phu" -> "cho:* & phu:*".
+     * Token đã được chuẩn hoá chỉ còn chữ/số nên không cần escape. Trả về null nếu rỗng.
+     */
+    public static String toPrefixQuery(String search) {
+        List<String> tokens = TextNormalizer.tokens(search);
+        if (tokens.isEmpty()) return null;
+        StringBuilder query = new StringBuilder();
+        for (String token : tokens) {
+            if (query.length() > 0) query.append(" & ");
+            query.append(token).append(":*");
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.pawfund.search;
+
+import java.util.Arrays;
+
+// Danh sách int tự giãn, tránh boxing Integer trong các chỉ mục
+final class IntList {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Chỉ dùng khi các giá trị được thêm theo thứ tự tăng dần
+    boolean containsSorted(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+}
@@ -0,0 +1,259 @@
+package com.ecommerce.pawfund.search;
+
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.repository.PetRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục bitmap cho các thuộc tính ít giá trị của pet (status, gender, age, vaccinated,
+ * dewormed, shelter). Vị trí bit chính là id của pet, nên kết quả AND đã sắp theo id
+ * và cắt trang bằng select theo thứ hạng.
+ * Giá trị cũ của từng pet lưu trong các cột mảng nguyên thuỷ để gỡ bit khi cập nhật.
+ */
+@Component
+public class PetAttributeIndex {
+    private static final int REBUILD_BATCH = 1000;
+    private static final byte VACCINATED = 1;
+    private static final byte DEWORMED = 2;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final CompressedBitmap[] byStatus = newBitmaps(Pet.Status.values().length);
+    private final CompressedBitmap[] byGender = newBitmaps(Pet.Gender.values().length);
+    private final TreeMap<Integer, CompressedBitmap> byAge = new TreeMap<>();
+    private final CompressedBitmap vaccinated = new CompressedBitmap();
+    private final CompressedBitmap dewormed = new CompressedBitmap();
+    private final Map<Long, CompressedBitmap> byShelter = new HashMap<>();
+
+    // Cột theo id pet: 0 = không có giá trị, còn lại là ordinal + 1 / age + 1
+    private byte[] statusColumn = new byte[0];
+    private byte[] genderColumn = new byte[0];
+    private short[] ageColumn = new short[0];
+    private byte[] flagColumn = new byte[0];
+    private long[] shelterColumn = new long[0];
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            int page = 0;
+            Page<Pet> batch;
+            do {
+                batch = petRepository.findAll(PageRequest.of(page++, REBUILD_BATCH, Sort.by("id")));
+                for (Pet pet : batch) {
+                    if (!fits(pet.getId())) {
+                        System.err.println("PetAttributeIndex disabled: pet id " + pet.getId() + " exceeds int range");
+                        return;
+                    }
+                    add(pet);
+                }
+            } while (batch.hasNext());
+            ready = true;
+            System.out.println("PetAttributeIndex built: " + all.cardinality() + " pets, ~" + footprintBytes() / 1024 + " KB");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Pet pet) {
+        if (pet == null || pet.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            // kiểm tra ready trong khoá: cập nhật đến giữa lúc rebuild sẽ chờ rebuild xong thay vì bị bỏ qua
+            if (!ready) return;
+            if (!fits(pet.getId())) {
+                ready = false;
+                return;
+            }
+            remove(pet.getId().intValue());
+            add(pet);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long petId) {
+        if (petId == null || !fits(petId)) return;
+        lock.writeLock().lock();
+        try {
+            if (!ready) return;
+            remove(petId.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * AND các điều kiện, tham số null là bỏ qua. Status/gender không hợp lệ cho kết quả rỗng.
+     */
+    public CompressedBitmap filter(String status, String gender, Integer age, Integer ageMin, Integer ageMax,
+                                   Boolean isVaccinated, Boolean isDewormed, Long shelterId) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap result = all;
+            if (status != null && !status.isEmpty()) {
+                Pet.Status value = parseEnum(Pet.Status.class, status);
+                if (value == null) return new CompressedBitmap();
+                result = result.and(byStatus[value.ordinal()]);
+            }
+            if (gender != null && !gender.isEmpty()) {
+                Pet.Gender value = parseEnum(Pet.Gender.class, gender);
+                if (value == null) return new CompressedBitmap();
+                result = result.and(byGender[value.ordinal()]);
+            }
+            if (age != null || ageMin != null || ageMax != null) {
+                int from = ageMin != null ? ageMin : Integer.MIN_VALUE;
+                int to = ageMax != null ? ageMax : Integer.MAX_VALUE;
+                if (age != null) {
+                    from = Math.max(from, age);
+                    to = Math.min(to, age);
+                }
+                if (from > to) return new CompressedBitmap();
+                CompressedBitmap ages = new CompressedBitmap();
+                for (CompressedBitmap b : byAge.subMap(from, true, to, true).values()) {
+                    ages = ages.or(b);
+                }
+                result = result.and(ages);
+            }
+            if (isVaccinated != null) {
+                result = isVaccinated ? result.and(vaccinated) : result.andNot(vaccinated);
+            }
+            if (isDewormed != null) {
+                result = isDewormed ? result.and(dewormed) : result.andNot(dewormed);
+            }
+            if (shelterId != null) {
+                CompressedBitmap b = byShelter.get(shelterId);
+                if (b == null) return new CompressedBitmap();
+                result = result.and(b);
+            }
+            return result == all ? all.copy() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = all.sizeInBytes() + vaccinated.sizeInBytes() + dewormed.sizeInBytes();
+            for (CompressedBitmap b : byStatus) bytes += b.sizeInBytes();
+            for (CompressedBitmap b : byGender) bytes += b.sizeInBytes();
+            for (CompressedBitmap b : byAge.values()) bytes += b.sizeInBytes();
+            for (CompressedBitmap b : byShelter.values()) bytes += b.sizeInBytes();
+            bytes += statusColumn.length + genderColumn.length + ageColumn.length * 2L
+                + flagColumn.length + shelterColumn.length * 8L;
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Pet pet) {
+        int id = pet.getId().intValue();
+        ensureCapacity(id);
+        all.add(id);
+        if (pet.getStatus() != null) {
+            byStatus[pet.getStatus().ordinal()].add(id);
+            statusColumn[id] = (byte) (pet.getStatus().ordinal() + 1);
+        }
+        if (pet.getGender() != null) {
+            byGender[pet.getGender().ordinal()].add(id);
+            genderColumn[id] = (byte) (pet.getGender().ordinal() + 1);
+        }
+        if (pet.getAge() != null && pet.getAge() >= 0 && pet.getAge() < Short.MAX_VALUE) {
+            byAge.computeIfAbsent(pet.getAge(), k -> new CompressedBitmap()).add(id);
+            ageColumn[id] = (short) (pet.getAge() + 1);
+        }
+        byte flags = 0;
+        if (Boolean.TRUE.equals(pet.getVaccinated())) {
+            vaccinated.add(id);
+            flags |= VACCINATED;
+        }
+        if (Boolean.TRUE.equals(pet.getDewormed())) {
+            dewormed.add(id);
+            flags |= DEWORMED;
+        }
+        flagColumn[id] = flags;
+        if (pet.getShelter() != null && pet.getShelter().getId() != null) {
+            long shelterId = pet.getShelter().getId();
+            byShelter.computeIfAbsent(shelterId, k -> new CompressedBitmap()).add(id);
+            shelterColumn[id] = shelterId;
+        }
+    }
+
+    private void remove(int id) {
+        if (id >= statusColumn.length || !all.contains(id)) return;
+        all.remove(id);
+        if (statusColumn[id] != 0) byStatus[statusColumn[id] - 1].remove(id);
+        if (genderColumn[id] != 0) byGender[genderColumn[id] - 1].remove(id);
+        if (ageColumn[id] != 0) {
+            int age = ageColumn[id] - 1;
+            CompressedBitmap b = byAge.get(age);
+            b.remove(id);
+            if (b.isEmpty()) byAge.remove(age);
+        }
+        if ((flagColumn[id] & VACCINATED) != 0) vaccinated.remove(id);
+        if ((flagColumn[id] & DEWORMED) != 0) dewormed.remove(id);
+        if (shelterColumn[id] != 0) {
+            CompressedBitmap b = byShelter.get(shelterColumn[id]);
+            b.remove(id);
+            if (b.isEmpty()) byShelter.remove(shelterColumn[id]);
+        }
+        statusColumn[id] = 0;
+        genderColumn[id] = 0;
+        ageColumn[id] = 0;
+        flagColumn[id] = 0;
+        shelterColumn[id] = 0;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < statusColumn.length) return;
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(1024L, (id + 1L) * 3 / 2));
+        statusColumn = Arrays.copyOf(statusColumn, capacity);
+        genderColumn = Arrays.copyOf(genderColumn, capacity);
+        ageColumn = Arrays.copyOf(ageColumn, capacity);
+        flagColumn = Arrays.copyOf(flagColumn, capacity);
+        shelterColumn = Arrays.copyOf(shelterColumn, capacity);
+    }
+
+    private static boolean fits(Long id) {
+        return id != null && id >= 0 && id < Integer.MAX_VALUE - 8;
+    }
+
+    private static CompressedBitmap[] newBitmaps(int n) {
+        CompressedBitmap[] bitmaps = new CompressedBitmap[n];
+        for (int i = 0; i < n; i++) bitmaps[i] = new CompressedBitmap();
+        return bitmaps;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) return constant;
+        }
+        return null;
+    }
+}
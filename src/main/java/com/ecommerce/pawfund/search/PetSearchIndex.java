@@ -0,0 +1,331 @@
+package com.ecommerce.pawfund.search;
+
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.repository.PetRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục đảo ngược trong bộ nhớ cho name/description/breed/location của pet.
+ * Mỗi pet là một doc (int); postings của từng term lưu bằng mảng int.
+ * Từ điển term được đánh chỉ mục bigram để tìm theo chuỗi con mà không phải quét toàn bộ.
+ * Sửa/xoá pet chỉ đánh dấu doc cũ là chết; compact() đánh số lại doc và dọn term rỗng
+ * nên bộ nhớ không tăng mãi theo số lần cập nhật.
+ */
+@Component
+public class PetSearchIndex {
+    private static final int NAME_WEIGHT = 8;
+    private static final int BREED_WEIGHT = 4;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_BATCH = 1000;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Value("${pawfund.search.mode:index}")
+    private String searchMode;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // doc -> pet id, và ngược lại
+    private long[] docPets = new long[1024];
+    private int docCount;
+    private final BitSet live = new BitSet();
+    private int deadDocs;
+    private final Map<Long, Integer> petDocs = new HashMap<>();
+
+    // term -> termId -> postings
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+    // bigram của term -> danh sách termId
+    private final Map<Integer, IntList> bigramTerms = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Chỉ giữ chỉ mục trong bộ nhớ khi đang dùng chế độ INDEX
+        if (SearchMode.from(searchMode) != SearchMode.INDEX) return;
+        lock.writeLock().lock();
+        try {
+            clear();
+            int page = 0;
+            Page<Pet> batch;
+            do {
+                batch = petRepository.findAll(PageRequest.of(page++, REBUILD_BATCH, Sort.by("id")));
+                for (Pet pet : batch) {
+                    addDocument(pet);
+                }
+            } while (batch.hasNext());
+            ready = true;
+            System.out.println("PetSearchIndex built: " + petDocs.size() + " pets, " + terms.size() + " terms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Pet pet) {
+        if (pet == null || pet.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            // ready đọc trong khoá ghi: cập nhật đến lúc rebuild đang chạy sẽ chờ rebuild xong rồi áp vào, không bị bỏ
+            if (!ready) return;
+            removeDocument(pet.getId());
+            addDocument(pet);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long petId) {
+        if (petId == null) return;
+        lock.writeLock().lock();
+        try {
+            if (!ready) return;
+            removeDocument(petId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Trả về id pet khớp với tất cả từ trong query (theo chuỗi con, không phân biệt dấu),
+     * sắp xếp theo điểm giảm dần. Tối đa limit kết quả.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = TextNormalizer.tokens(query);
+        if (queryTokens.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String token : queryTokens) {
+                Map<Integer, Integer> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Integer, Integer> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Integer> e : scores.entrySet()) {
+                        Integer other = tokenScores.get(e.getKey());
+                        if (other != null) merged.put(e.getKey(), e.getValue() + other);
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+            long[] ranked = new long[scores.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> e : scores.entrySet()) {
+                // điểm ở 32 bit cao (đảo dấu để sort tăng dần), doc ở 32 bit thấp
+                ranked[i++] = ((long) -e.getValue() << 32) | (e.getKey() & 0xffffffffL);
+            }
+            Arrays.sort(ranked);
+            int size = Math.min(limit, ranked.length);
+            List<Long> petIds = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                petIds.add(docPets[(int) ranked[k]]);
+            }
+            return petIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Integer> scoreToken(String token) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        IntList candidates = candidateTerms(token);
+        for (int c = 0; c < candidates.size(); c++) {
+            int termId = candidates.get(c);
+            String term = terms.get(termId);
+            if (!term.contains(token)) continue;
+            int boost = term.equals(token) ? 3 : term.startsWith(token) ? 2 : 1;
+            Postings p = postings.get(termId);
+            for (int k = 0; k < p.size; k++) {
+                int doc = p.docs[k];
+                if (!live.get(doc)) continue;
+                scores.merge(doc, p.weights[k] * boost, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private IntList candidateTerms(String token) {
+        if (token.length() < 2) {
+            IntList all = new IntList();
+            for (int t = 0; t < terms.size(); t++) all.add(t);
+            return all;
+        }
+        IntList smallest = null;
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 1 < token.length(); i++) {
+            IntList list = bigramTerms.get(bigram(token, i));
+            if (list == null) return new IntList();
+            lists.add(list);
+            if (smallest == null || list.size() < smallest.size()) smallest = list;
+        }
+        IntList result = new IntList();
+        // các danh sách termId đều tăng dần nên chỉ cần kiểm tra chứa bằng binary search
+        outer:
+        for (int i = 0; i < smallest.size(); i++) {
+            int termId = smallest.get(i);
+            for (IntList list : lists) {
+                if (list != smallest && !list.containsSorted(termId)) continue outer;
+            }
+            result.add(termId);
+        }
+        return result;
+    }
+
+    private void addDocument(Pet pet) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, pet.getName(), NAME_WEIGHT);
+        addField(weights, pet.getBreed(), BREED_WEIGHT);
+        addField(weights, pet.getLocation(), LOCATION_WEIGHT);
+        addField(weights, pet.getDescription(), DESCRIPTION_WEIGHT);
+
+        int doc = docCount++;
+        if (doc == docPets.length) docPets = Arrays.copyOf(docPets, doc * 2);
+        docPets[doc] = pet.getId();
+        live.set(doc);
+        petDocs.put(pet.getId(), doc);
+
+        for (Map.Entry<String, Integer> e : weights.entrySet()) {
+            postings.get(termId(e.getKey())).add(doc, e.getValue());
+        }
+    }
+
+    private void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String token : TextNormalizer.tokens(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) return existing;
+        int id = terms.size();
+        terms.add(term);
+        postings.add(new Postings());
+        termIds.put(term, id);
+        for (int i = 0; i + 1 < term.length(); i++) {
+            IntList list = bigramTerms.computeIfAbsent(bigram(term, i), k -> new IntList());
+            if (list.size() == 0 || list.get(list.size() - 1) != id) list.add(id);
+        }
+        return id;
+    }
+
+    private void removeDocument(Long petId) {
+        Integer doc = petDocs.remove(petId);
+        if (doc != null) {
+            live.clear(doc);
+            deadDocs++;
+        }
+    }
+
+    // Doc cũ chỉ bị đánh dấu xoá; khi số doc chết vượt quá một nửa thì đánh số lại doc và bỏ term không còn doc nào
+    private void compactIfNeeded() {
+        if (deadDocs < REBUILD_BATCH || deadDocs * 2 < docCount) return;
+        compact();
+    }
+
+    private void compact() {
+        // doc sống giữ nguyên thứ tự nên postings vẫn tăng dần theo doc sau khi đánh số lại
+        int[] remap = new int[docCount];
+        int liveDocs = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            remap[doc] = live.get(doc) ? liveDocs++ : -1;
+        }
+        long[] pets = new long[Math.max(1024, liveDocs * 2)];
+        for (int doc = 0; doc < docCount; doc++) {
+            if (remap[doc] >= 0) pets[remap[doc]] = docPets[doc];
+        }
+        docPets = pets;
+        docCount = liveDocs;
+        live.clear();
+        live.set(0, liveDocs);
+        petDocs.replaceAll((petId, doc) -> remap[doc]);
+        deadDocs = 0;
+
+        // termId mới theo thứ tự cũ nên các danh sách trong bigramTerms vẫn tăng dần
+        List<String> oldTerms = new ArrayList<>(terms);
+        List<Postings> oldPostings = new ArrayList<>(postings);
+        termIds.clear();
+        terms.clear();
+        postings.clear();
+        bigramTerms.clear();
+        for (int t = 0; t < oldTerms.size(); t++) {
+            Postings p = oldPostings.get(t);
+            p.remap(remap);
+            if (p.size == 0) continue;
+            postings.set(termId(oldTerms.get(t)), p);
+        }
+    }
+
+    private void clear() {
+        docPets = new long[1024];
+        docCount = 0;
+        live.clear();
+        deadDocs = 0;
+        petDocs.clear();
+        termIds.clear();
+        terms.clear();
+        postings.clear();
+        bigramTerms.clear();
+    }
+
+    private static int bigram(String s, int i) {
+        return (s.charAt(i) << 16) | s.charAt(i + 1);
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        // Bỏ doc đã xoá (remap = -1), đổi doc còn lại sang số mới
+        void remap(int[] remap) {
+            int w = 0;
+            for (int r = 0; r < size; r++) {
+                int doc = remap[docs[r]];
+                if (doc >= 0) {
+                    docs[w] = doc;
+                    weights[w] = weights[r];
+                    w++;
+                }
+            }
+            size = w;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.pawfund.search;
+
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.repository.PetRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Gợi ý typeahead cho breed và location (GET /api/pets/suggest), trả lời hoàn toàn từ bộ nhớ.
+ * Giữ breed/location cũ của từng pet để khi lưu chỉ cần trừ giá trị cũ, cộng giá trị mới.
+ */
+@Component
+public class PetSuggestIndex {
+    private static final int REBUILD_BATCH = 1000;
+
+    public enum Field { BREED, LOCATION }
+
+    @Autowired
+    private PetRepository petRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie breeds = new SuggestionTrie();
+    private final SuggestionTrie locations = new SuggestionTrie();
+    // pet id -> {breed, location} đã đưa vào trie
+    private final Map<Long, String[]> indexed = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            breeds.clear();
+            locations.clear();
+            indexed.clear();
+            int page = 0;
+            Page<Pet> batch;
+            do {
+                batch = petRepository.findAll(PageRequest.of(page++, REBUILD_BATCH, Sort.by("id")));
+                for (Pet pet : batch) {
+                    add(pet);
+                }
+            } while (batch.hasNext());
+            ready = true;
+            System.out.println("PetSuggestIndex built: " + breeds.size() + " breeds, " + locations.size() + " locations");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Pet pet) {
+        if (pet == null || pet.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            // kiểm tra ready sau khi lấy khoá để không mất cập nhật xảy ra giữa lúc rebuild
+            if (!ready) return;
+            remove(pet.getId().longValue());
+            add(pet);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long petId) {
+        if (petId == null) return;
+        lock.writeLock().lock();
+        try {
+            if (!ready) return;
+            remove(petId.longValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(Field field, String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return (field == Field.BREED ? breeds : locations).suggest(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Pet pet) {
+        breeds.add(pet.getBreed(), 1);
+        locations.add(pet.getLocation(), 1);
+        indexed.put(pet.getId(), new String[] { pet.getBreed(), pet.getLocation() });
+    }
+
+    private void remove(long petId) {
+        String[] old = indexed.remove(petId);
+        if (old == null) return;
+        breeds.add(old[0], -1);
+        locations.add(old[1], -1);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.pawfund.search;
+
+// Cách thực hiện tham số search (cấu hình pawfund.search.mode)
+public enum SearchMode {
+    // Chỉ mục đảo ngược trong bộ nhớ (PetSearchIndex)
+    INDEX,
+    // LIKE '%...%' trực tiếp trên DB
+    LIKE,
+    // Cột tsvector + GIN index của PostgreSQL, tự lùi về LIKE trên DB khác (H2)
+    FULLTEXT;
+
+    public static SearchMode from(String value) {
+        for (SearchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) return mode;
+        }
+        return INDEX;
+    }
+}
@@ -0,0 +1,5 @@
+package com.ecommerce.pawfund.search;
+
+// Một gợi ý typeahead: giá trị hiển thị và số pet đang có giá trị đó
+public record Suggestion(String value, int count) {
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.pawfund.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Trie tiền tố gọn cho các giá trị phân biệt của một trường (breed, location).
+ * Khoá là chuỗi đã bỏ dấu/chữ thường; con của mỗi node lưu bằng mảng char đã sắp xếp
+ * thay vì HashMap. Mỗi node giữ số đếm lớn nhất trong cây con để duyệt theo thứ tự
+ * ưu tiên và dừng ngay khi đủ limit gợi ý.
+ * Không thread-safe; PetSuggestIndex tự khoá.
+ */
+final class SuggestionTrie {
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Cộng delta vào số đếm của value (delta âm khi pet đổi/xoá giá trị). Giá trị về 0 bị gỡ khỏi trie.
+     */
+    void add(String value, int delta) {
+        String key = normalize(value);
+        if (key.isEmpty() || delta == 0) return;
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                if (delta < 0) return;
+                child = node.addChild(key.charAt(i));
+            }
+            node = child;
+            path[i + 1] = node;
+        }
+        int before = node.count;
+        node.count = Math.max(0, node.count + delta);
+        if (before == 0 && node.count > 0) {
+            node.display = value.trim();
+            size++;
+        } else if (before > 0 && node.count == 0) {
+            node.display = null;
+            size--;
+        }
+        // cập nhật maxCount từ lá lên gốc, tỉa các node không còn giá trị nào
+        for (int i = key.length(); i >= 0; i--) {
+            Node n = path[i];
+            n.recomputeMax();
+            if (i > 0 && n.maxCount == 0) path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        List<Suggestion> result = new ArrayList<>(limit);
+        if (node == null || limit <= 0) return result;
+        // best-first theo maxCount: node có maxCount thấp hơn count của gợi ý kế tiếp thì chưa cần mở
+        PriorityQueue<Node> queue = new PriorityQueue<>((a, b) -> Integer.compare(b.priority(), a.priority()));
+        queue.add(node);
+        while (!queue.isEmpty() && result.size() < limit) {
+            Node n = queue.poll();
+            if (n.emitted) {
+                result.add(new Suggestion(n.display, n.count));
+                continue;
+            }
+            if (n.count > 0) queue.add(n.asTerminal());
+            for (int i = 0; i < n.childCount; i++) queue.add(n.children[i]);
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        root.childCount = 0;
+        root.keys = new char[0];
+        root.children = new Node[0];
+        root.count = 0;
+        root.maxCount = 0;
+        size = 0;
+    }
+
+    // Gộp khoảng trắng và bỏ dấu để "Hà  Nội" và "ha noi" là cùng một giá trị
+    static String normalize(String value) {
+        return String.join(" ", TextNormalizer.tokens(value));
+    }
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int childCount;
+        int count;
+        int maxCount;
+        String display;
+        // true với node tạm đại diện cho chính giá trị của node cha trong hàng đợi
+        boolean emitted;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int i = -Arrays.binarySearch(keys, 0, childCount, c) - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, i, keys, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            Node child = new Node();
+            keys[i] = c;
+            children[i] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i < 0) return;
+            System.arraycopy(keys, i + 1, keys, i, childCount - i - 1);
+            System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+            children[--childCount] = null;
+        }
+
+        void recomputeMax() {
+            int max = count;
+            for (int i = 0; i < childCount; i++) max = Math.max(max, children[i].maxCount);
+            maxCount = max;
+        }
+
+        int priority() {
+            return emitted ? count : maxCount;
+        }
+
+        Node asTerminal() {
+            Node terminal = new Node();
+            terminal.count = count;
+            terminal.display = display;
+            terminal.emitted = true;
+            return terminal;
+        }
+    }
+}
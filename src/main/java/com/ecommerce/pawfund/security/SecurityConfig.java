@@ -53,6 +53,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/api/pets/upload-images/*").permitAll()
         
                 .requestMatchers(HttpMethod.GET, "/api/events", "/api/events/", "/api/events/*", "/api/events/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll() // Ảnh của local storage
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/api/guest-cart/**").permitAll() // Cho phép guest-cart
                 .requestMatchers("/api/test/**").permitAll() // Cho phép test endpoints
@@ -5,6 +5,7 @@ import com.ecommerce.pawfund.repository.AdoptionRepository;
 import com.ecommerce.pawfund.service.inter.IAdoptionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -53,6 +54,11 @@ public class AdoptionServiceImpl implements IAdoptionService {
     public List<Adoption> getAllAdoptions() {
         return adoptionRepository.findAll();
     }
+
+    @Override
+    public List<Adoption> findAfter(long afterId, int limit) {
+        return adoptionRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
     
     @Override
     public Adoption updateAdoptionStatus(Long adoptionId, String status, String adminNotes, String shelterNotes) {
@@ -1,63 +1,230 @@
 package com.ecommerce.pawfund.service.imple;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.dto.UploadResult;
 import com.ecommerce.pawfund.service.inter.ICloudinaryService;
+import com.ecommerce.pawfund.storage.ContentHashIndex;
+import com.ecommerce.pawfund.storage.ImageStore;
+import com.ecommerce.pawfund.storage.ImageVariantGenerator;
+import com.ecommerce.pawfund.storage.UploadSpool;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
+/**
+ * Upload ảnh: song song có giới hạn, dedup theo nội dung, thu nhỏ ảnh, rồi ghi qua ImageStore
+ * (Cloudinary hoặc đĩa local tuỳ pawfund.storage.type). Tên lớp giữ như cũ cho các nơi đang dùng.
+ */
 @Service
 public class CloudinaryServiceImpl implements ICloudinaryService {
-    private final Cloudinary cloudinary;
+    private final ImageStore imageStore;
+    private final ExecutorService uploadExecutor;
+    // Giới hạn số upload đang chạy của cả ứng dụng, tránh bị Cloudinary giới hạn tốc độ
+    private final Semaphore globalUploads;
+    private final int perRequestUploads;
+    private final UploadSpool uploadSpool;
+    private final ImageVariantGenerator variantGenerator;
+    private final ContentHashIndex contentHashIndex;
 
     public CloudinaryServiceImpl(
-            @Value("${cloudinary.cloud_name}") String cloudName,
-            @Value("${cloudinary.api_key}") String apiKey,
-            @Value("${cloudinary.api_secret}") String apiSecret) {
-        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
-                "cloud_name", cloudName,
-                "api_key", apiKey,
-                "api_secret", apiSecret
-        ));
+            ImageStore imageStore,
+            @Value("${pawfund.upload.max-concurrent:8}") int maxConcurrent,
+            @Value("${pawfund.upload.per-request:4}") int perRequest,
+            UploadSpool uploadSpool,
+            ImageVariantGenerator variantGenerator,
+            ContentHashIndex contentHashIndex) {
+        this.imageStore = imageStore;
+        this.globalUploads = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.perRequestUploads = Math.max(1, perRequest);
+        this.uploadExecutor = newUploadExecutor(Math.max(1, maxConcurrent));
+        this.uploadSpool = uploadSpool;
+        this.variantGenerator = variantGenerator;
+        this.contentHashIndex = contentHashIndex;
     }
 
+    // Upload từ file tạm trên đĩa: HTTP client stream file theo từng buffer nhỏ, không tạo byte[] bằng cả ảnh
     public String uploadFile(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap("folder", "pawfund"));
-        return uploadResult.get("secure_url").toString();
+        Path spooled = uploadSpool.spool(file);
+        try {
+            return uploadPath(spooled);
+        } finally {
+            uploadSpool.delete(spooled);
+        }
+    }
+
+    private StoredImage uploadImageFile(MultipartFile file) throws IOException {
+        Path spooled = uploadSpool.spool(file);
+        try {
+            return uploadImage(spooled);
+        } finally {
+            uploadSpool.delete(spooled);
+        }
+    }
+
+    @Override
+    public String uploadPath(Path file) throws IOException {
+        return imageStore.store(file);
+    }
+
+    // Cùng nội dung (SHA-256 file gốc) đã upload rồi thì trả lại ảnh cũ, không giải mã, không ghi vào storage
+    @Override
+    public StoredImage uploadImage(Path file) throws IOException {
+        if (!contentHashIndex.isEnabled()) return storeImage(file);
+        String contentHash = contentHashIndex.hash(file);
+        long size = Files.size(file);
+        Optional<StoredImage> existing = contentHashIndex.find(contentHash, size);
+        if (existing.isPresent()) {
+            System.out.println("Reusing uploaded image " + existing.get().url() + " (same content)");
+            return existing.get();
+        }
+        StoredImage stored = storeImage(file).withContentHash(contentHash);
+        contentHashIndex.record(contentHash, stored, size);
+        return stored;
     }
 
-     // Upload nhiều file và trả về danh sách URL
-     public List<String> uploadFiles(List<MultipartFile> files) throws IOException {
-        List<String> fileUrls = new ArrayList<>();
-        for (MultipartFile file : files) {
+    private StoredImage storeImage(Path file) throws IOException {
+        Map<ImageVariantGenerator.Size, ImageVariantGenerator.Variant> variants = variantGenerator.generate(file);
+        if (variants.isEmpty()) return StoredImage.original(uploadPath(file));
+        try {
+            ImageVariantGenerator.Variant full = variants.get(ImageVariantGenerator.Size.FULL);
+            // Ba bản upload tuần tự trong cùng một slot của globalUploads
+            String url = uploadPath(full.path());
+            String cardUrl = uploadPath(variants.get(ImageVariantGenerator.Size.CARD).path());
+            String thumbUrl = uploadPath(variants.get(ImageVariantGenerator.Size.THUMB).path());
+            return new StoredImage(url, cardUrl, thumbUrl, full.width(), full.height(), null);
+        } finally {
+            variants.values().forEach(v -> uploadSpool.delete(v.path()));
+        }
+    }
+
+     // Upload nhiều ảnh (song song, giữ thứ tự); lỗi ở file nào thì ném lỗi của file đó
+     public List<StoredImage> uploadFiles(List<MultipartFile> files) throws IOException {
+        List<StoredImage> images = new ArrayList<>();
+        for (UploadResult result : uploadAll(files)) {
+            if (!result.isSuccess()) {
+                throw new IOException("Failed to upload " + result.filename() + ": " + result.error());
+            }
+            images.add(result.image());
+        }
+        return images;
+    }
+
+    @Override
+    public List<UploadResult> uploadAll(List<MultipartFile> files) {
+        return uploadBounded(files, i -> files.get(i).getOriginalFilename(), this::uploadImageFile, result -> { });
+    }
+
+    @Override
+    public List<UploadResult> uploadAllPaths(List<Path> files, List<String> filenames, Consumer<UploadResult> onResult) {
+        return uploadBounded(files, filenames::get, this::uploadImage, onResult);
+    }
+
+    private interface Upload<T> {
+        StoredImage upload(T file) throws IOException;
+    }
+
+    private <T> List<UploadResult> uploadBounded(List<T> files, IntFunction<String> nameOf, Upload<T> upload,
+                                                 Consumer<UploadResult> onResult) {
+        // Tối đa perRequestUploads file của cùng request chạy cùng lúc, để một request lớn không chiếm hết globalUploads
+        Semaphore requestSlots = new Semaphore(perRequestUploads);
+        List<Future<StoredImage>> futures = new ArrayList<>(files.size());
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                T file = files.get(i);
+                String filename = nameOf.apply(i);
+                requestSlots.acquire();
+                futures.add(uploadExecutor.submit(() -> {
+                    try {
+                        globalUploads.acquire();
+                        try {
+                            System.out.println("Uploading file: " + filename);
+                            return upload.upload(file);
+                        } finally {
+                            globalUploads.release();
+                        }
+                    } finally {
+                        requestSlots.release();
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        List<UploadResult> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String filename = nameOf.apply(i);
+            if (i >= futures.size()) {
+                results.add(UploadResult.failure(i, filename, "Upload cancelled"));
+                onResult.accept(results.get(i));
+                continue;
+            }
             try {
-                System.out.println("Uploading file: " + file.getOriginalFilename() + 
-                                " (size: " + file.getSize() + " bytes)");
-                String fileUrl = uploadFile(file);
-                fileUrls.add(fileUrl);
-                System.out.println("Successfully uploaded: " + fileUrl);
-            } catch (Exception e) {
-                System.out.println("ERROR uploading file " + file.getOriginalFilename() + ": " + e.getMessage());
-                throw e;
+                StoredImage image = futures.get(i).get();
+                System.out.println("Successfully uploaded: " + image.url());
+                results.add(UploadResult.success(i, filename, image));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.out.println("ERROR uploading file " + filename + ": " + cause.getMessage());
+                results.add(UploadResult.failure(i, filename, cause.getMessage()));
+            } catch (CancellationException e) {
+                results.add(UploadResult.failure(i, filename, "Upload cancelled"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.get(i).cancel(true);
+                results.add(UploadResult.failure(i, filename, "Upload cancelled"));
             }
+            onResult.accept(results.get(i));
         }
-        return fileUrls;
+        return results;
     }
 
     public String uploadBytes(byte[] data, String filename) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(data, ObjectUtils.asMap(
-            "folder", "pawfund",
-            "public_id", filename
-        ));
-        return uploadResult.get("secure_url").toString();
-    }
-    
-   
-} 
\ No newline at end of file
+        String suffix = filename != null && filename.contains(".") ? filename.substring(filename.lastIndexOf('.')) : ".bin";
+        Path file = uploadSpool.newFile(suffix);
+        try {
+            Files.write(file, data);
+            return uploadPath(file);
+        } finally {
+            uploadSpool.delete(file);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    // Virtual thread khi chạy trên Java 21+ (số luồng không giới hạn, globalUploads giới hạn thay),
+    // Java 17 dùng pool cố định bằng đúng giới hạn chung
+    private static ExecutorService newUploadExecutor(int maxConcurrent) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(maxConcurrent, r -> {
+                Thread thread = new Thread(r, "cloudinary-upload");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.ecommerce.pawfund.repository.DonationRepository;
 import com.ecommerce.pawfund.service.inter.IDonationService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -38,4 +39,9 @@ public class DonationServiceImpl implements IDonationService {
     public List<Donation> findByUserId(Long userId) {
         return donationRepository.findByUser_Id(userId);
     }
+
+    @Override
+    public List<Donation> findAfter(long afterId, int limit) {
+        return donationRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
 } 
\ No newline at end of file
@@ -1,13 +1,19 @@
 package com.ecommerce.pawfund.service.imple;
 
+import com.ecommerce.pawfund.cache.AfterCommit;
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.VersionStamp;
 import com.ecommerce.pawfund.entity.Event;
 import com.ecommerce.pawfund.entity.User;
 import com.ecommerce.pawfund.dto.EventDTO;
 import com.ecommerce.pawfund.repository.EventRepository;
+import com.ecommerce.pawfund.search.FullTextSearchSupport;
 import com.ecommerce.pawfund.service.inter.IEventService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -16,25 +22,44 @@ import java.util.stream.Collectors;
 public class EventServiceImpl implements IEventService {
     @Autowired
     private EventRepository eventRepository;
+    @Autowired
+    private CatalogVersion catalogVersion;
 
     @Override
     public Optional<Event> findById(Long id) {
         return eventRepository.findById(id);
     }
 
+    @Override
+    public Optional<VersionStamp> findVersionStamp(Long id) {
+        return eventRepository.findVersionStampById(id);
+    }
+
     @Override
     public List<Event> findAll() {
         return eventRepository.findAll();
     }
 
     @Override
+    @Transactional
     public Event save(Event event) {
-        return eventRepository.save(event);
+        // PUT /api/events/{id} gửi lên một đối tượng mới: version = 1 chỉ dùng khi INSERT,
+        // event đã có thì tăng version trong DB cùng transaction rồi đọc lại
+        boolean exists = event.getId() != null && eventRepository.existsById(event.getId());
+        event.setVersion(1L);
+        event.setUpdatedAt(LocalDateTime.now());
+        Event saved = eventRepository.save(event);
+        if (exists) saved.setVersion(catalogVersion.nextVersion(CatalogVersion.Scope.EVENTS, saved.getId()));
+        // ETag danh sách đổi sau commit, như PetServiceImpl.save
+        AfterCommit.run(() -> catalogVersion.changed(CatalogVersion.Scope.EVENTS));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
         eventRepository.deleteById(id);
+        AfterCommit.run(() -> catalogVersion.changed(CatalogVersion.Scope.EVENTS));
     }
 
     @Override
@@ -127,4 +152,12 @@ public class EventServiceImpl implements IEventService {
         Event savedEvent = save(event);
         return convertToDTO(savedEvent);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public List<Long> searchIdsByFullText(String search, int limit) {
+        String query = FullTextSearchSupport.toPrefixQuery(search);
+        if (query == null) return List.of();
+        List<Long> ranked = eventRepository.searchIdsByFullText(query, limit + 1);
+        return ranked.size() > limit ? null : ranked;
+    }
+}
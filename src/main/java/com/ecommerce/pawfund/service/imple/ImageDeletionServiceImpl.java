@@ -0,0 +1,247 @@
+package com.ecommerce.pawfund.service.imple;
+
+import com.ecommerce.pawfund.entity.ImageDeletion;
+import com.ecommerce.pawfund.entity.PetImage;
+import com.ecommerce.pawfund.repository.ImageDeletionRepository;
+import com.ecommerce.pawfund.repository.PetImageRepository;
+import com.ecommerce.pawfund.service.inter.IImageDeletionService;
+import com.ecommerce.pawfund.storage.ContentHashIndex;
+import com.ecommerce.pawfund.storage.ImageStore;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Xoá ảnh khỏi storage ở nền. Request gỡ/thay ảnh chỉ ghi URL vào image_deletions; worker định kỳ
+ * nhận một lô đến hạn, bỏ các URL còn được pet nào dùng (ảnh dùng chung nhờ dedup) hoặc không thuộc
+ * storage hiện tại, rồi xoá cả lô qua ImageStore.deleteAll. Lỗi thì thử lại với backoff luỹ thừa.
+ */
+@Service
+public class ImageDeletionServiceImpl implements IImageDeletionService {
+    // Nhận lô bằng một câu UPDATE: dời next_attempt_at ra sau (lease) để instance khác không nhận trùng
+    private static final String CLAIM_SQL =
+        "UPDATE image_deletions SET next_attempt_at = ? WHERE id IN (" +
+        "SELECT id FROM image_deletions WHERE next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ? " +
+        "FOR UPDATE SKIP LOCKED) RETURNING id, url, attempts";
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+    @Autowired
+    private PetImageRepository petImageRepository;
+    @Autowired
+    private ImageStore imageStore;
+    @Autowired
+    private ContentHashIndex contentHashIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final long graceSeconds;
+    private final long backoffSeconds;
+    private final long maxBackoffSeconds;
+
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    public ImageDeletionServiceImpl(@Value("${pawfund.image-deletion.batch-size:100}") int batchSize,
+                                    @Value("${pawfund.image-deletion.max-batches-per-run:10}") int maxBatchesPerRun,
+                                    @Value("${pawfund.image-deletion.max-attempts:8}") int maxAttempts,
+                                    @Value("${pawfund.image-deletion.grace-seconds:300}") long graceSeconds,
+                                    @Value("${pawfund.image-deletion.backoff-seconds:60}") long backoffSeconds,
+                                    @Value("${pawfund.image-deletion.max-backoff-seconds:21600}") long maxBackoffSeconds,
+                                    MeterRegistry meterRegistry) {
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+        this.graceSeconds = graceSeconds;
+        this.backoffSeconds = backoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        FunctionCounter.builder("pawfund.image_deletion.deleted", deleted, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.image_deletion.skipped", skipped, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.image_deletion.failures", failures, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("pawfund.image_deletion.queued", queued, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("pawfund.image_deletion.dead", dead, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Override
+    public void enqueue(Collection<String> urls) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url != null && !url.isBlank()) distinct.add(url);
+        }
+        if (distinct.isEmpty()) return;
+        // Để một khoảng trước khi xoá: ảnh vừa gỡ có thể được gắn lại (dedup trả về cùng URL)
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageDeletion> rows = new ArrayList<>(distinct.size());
+        for (String url : distinct) {
+            ImageDeletion row = new ImageDeletion();
+            row.setUrl(url);
+            row.setCreatedAt(now);
+            row.setNextAttemptAt(now.plusSeconds(graceSeconds));
+            rows.add(row);
+        }
+        imageDeletionRepository.saveAll(rows);
+        queued.addAndGet(rows.size());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${pawfund.image-deletion.interval-ms:30000}",
+               initialDelayString = "${pawfund.image-deletion.initial-delay-ms:30000}")
+    public int processDue() {
+        int total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                List<Claimed> batch = claim();
+                if (batch.isEmpty()) break;
+                total += process(batch);
+                if (batch.size() < batchSize) break;
+            }
+        } catch (RuntimeException e) {
+            // Lỗi DB không được làm chết scheduler, lần sau chạy lại
+            System.err.println("Image deletion run failed: " + e.getMessage());
+        } finally {
+            refreshGauges();
+        }
+        if (total > 0) System.out.println("Deleted " + total + " images from storage");
+        return total;
+    }
+
+    private List<Claimed> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        // Lease đủ dài cho một lô; instance chết giữa chừng thì lô tự đến hạn lại
+        Timestamp lease = Timestamp.valueOf(now.plusMinutes(10));
+        return jdbcTemplate.query(CLAIM_SQL,
+            (rs, i) -> new Claimed(rs.getLong("id"), rs.getString("url"), rs.getInt("attempts")),
+            lease, Timestamp.valueOf(now), batchSize);
+    }
+
+    private int process(List<Claimed> batch) {
+        Map<String, List<Claimed>> byUrl = new HashMap<>();
+        for (Claimed row : batch) byUrl.computeIfAbsent(row.url(), u -> new ArrayList<>()).add(row);
+
+        // Bỏ khỏi chỉ mục dedup trước, để upload mới không nhận lại URL sắp bị xoá. URL mà dedup vừa trả
+        // cho một upload trong grace-seconds thì để lần sau: upload đó sắp gắn URL vào pet
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> leased = contentHashIndex.forgetUrls(byUrl.keySet(), now.minusSeconds(graceSeconds));
+
+        Set<String> referenced = new HashSet<>();
+        for (PetImage image : petImageRepository.findReferencing(byUrl.keySet())) {
+            referenced.add(image.getUrl());
+            referenced.add(image.getCardUrl());
+            referenced.add(image.getThumbUrl());
+        }
+        List<Long> done = new ArrayList<>();
+        List<Object[]> postponed = new ArrayList<>();
+        List<String> toDelete = new ArrayList<>();
+        for (String url : byUrl.keySet()) {
+            if (leased.contains(url) && !referenced.contains(url)) {
+                Timestamp later = Timestamp.valueOf(now.plusSeconds(graceSeconds));
+                byUrl.get(url).forEach(row -> postponed.add(new Object[] { later, row.id() }));
+            } else if (referenced.contains(url) || !imageStore.owns(url)) {
+                byUrl.get(url).forEach(row -> done.add(row.id()));
+                skipped.incrementAndGet();
+            } else {
+                toDelete.add(url);
+            }
+        }
+
+        Set<String> gone = new HashSet<>();
+        String error = null;
+        if (!toDelete.isEmpty()) {
+            try {
+                gone = imageStore.deleteAll(toDelete);
+            } catch (IOException | RuntimeException e) {
+                error = e.getMessage();
+                System.err.println("Batch delete of " + toDelete.size() + " images failed: " + error);
+            }
+        }
+        if (!gone.isEmpty()) {
+            // Kiểm tra lại sau khi xoá: upload chạy song song có thể đã ghi lại đúng URL này
+            // (LocalImageStore đặt tên theo nội dung), không để dedup trả URL đó nữa
+            contentHashIndex.dropUrls(gone);
+            for (PetImage image : petImageRepository.findReferencing(gone)) {
+                System.err.println("Image of pet " + image.getPetId() + " was re-attached while being deleted: " + image.getUrl());
+            }
+        }
+
+        List<Object[]> retries = new ArrayList<>();
+        List<Object[]> giveUps = new ArrayList<>();
+        for (String url : toDelete) {
+            for (Claimed row : byUrl.get(url)) {
+                if (gone.contains(url)) {
+                    done.add(row.id());
+                    continue;
+                }
+                failures.incrementAndGet();
+                int attempts = row.attempts() + 1;
+                String lastError = truncate(error != null ? error : "Not deleted by storage");
+                if (attempts >= maxAttempts) {
+                    System.err.println("Giving up deleting image " + url + " after " + attempts + " attempts");
+                    giveUps.add(new Object[] { attempts, lastError, row.id() });
+                } else {
+                    retries.add(new Object[] { attempts, lastError, Timestamp.valueOf(now.plusSeconds(backoff(attempts))), row.id() });
+                }
+            }
+        }
+        if (!done.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM image_deletions WHERE id = ?",
+                done.stream().map(id -> new Object[] { id }).toList());
+        }
+        if (!postponed.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE image_deletions SET next_attempt_at = ? WHERE id = ?", postponed);
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE image_deletions SET attempts = ?, last_error = ?, next_attempt_at = ? WHERE id = ?", retries);
+        }
+        if (!giveUps.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE image_deletions SET attempts = ?, last_error = ?, next_attempt_at = NULL WHERE id = ?", giveUps);
+        }
+        deleted.addAndGet(gone.size());
+        return gone.size();
+    }
+
+    // backoff * 2^(attempts-1), tối đa maxBackoffSeconds
+    private long backoff(int attempts) {
+        long delay = backoffSeconds << Math.min(attempts - 1, 30);
+        return Math.min(delay, maxBackoffSeconds);
+    }
+
+    private void refreshGauges() {
+        try {
+            queued.set(imageDeletionRepository.countByNextAttemptAtIsNotNull());
+            dead.set(imageDeletionRepository.countByNextAttemptAtIsNull());
+        } catch (RuntimeException e) {
+            System.err.println("Could not count image deletions: " + e.getMessage());
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private record Claimed(long id, String url, int attempts) { }
+}
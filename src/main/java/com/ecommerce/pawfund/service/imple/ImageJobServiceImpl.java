@@ -0,0 +1,181 @@
+package com.ecommerce.pawfund.service.imple;
+
+import com.ecommerce.pawfund.dto.ImageJob;
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.dto.UploadResult;
+import com.ecommerce.pawfund.service.inter.ICloudinaryService;
+import com.ecommerce.pawfund.service.inter.IImageJobService;
+import com.ecommerce.pawfund.service.inter.IPetImageService;
+import com.ecommerce.pawfund.service.inter.IPetService;
+import com.ecommerce.pawfund.storage.UploadSpool;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upload ảnh chạy nền: request chỉ validate + spool file rồi trả 202, worker upload (song song có giới hạn
+ * qua ICloudinaryService) và ghi pet_images khi xong. Trạng thái job giữ trong bộ nhớ, xoá sau retention.
+ */
+@Service
+public class ImageJobServiceImpl implements IImageJobService {
+    @Autowired
+    private ICloudinaryService cloudinaryService;
+    @Autowired
+    private IPetImageService petImageService;
+    @Autowired
+    private IPetService petService;
+    @Autowired
+    private UploadSpool uploadSpool;
+
+    private final ThreadPoolExecutor workers;
+    private final long retentionMinutes;
+    private final long shutdownTimeoutSeconds;
+    private final Map<String, ImageJob> jobs = new ConcurrentHashMap<>();
+
+    public ImageJobServiceImpl(@Value("${pawfund.image-jobs.workers:2}") int workerCount,
+                               @Value("${pawfund.image-jobs.queue-capacity:100}") int queueCapacity,
+                               @Value("${pawfund.image-jobs.retention-minutes:60}") long retentionMinutes,
+                               @Value("${pawfund.image-jobs.shutdown-timeout-seconds:30}") long shutdownTimeoutSeconds,
+                               MeterRegistry meterRegistry) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "image-job-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            // Hàng đợi đầy thì chạy luôn trên thread của request: chậm lại thay vì từ chối.
+            // Đã shutdown thì từ chối hẳn (CallerRunsPolicy sẽ lặng lẽ bỏ job)
+            (task, executor) -> {
+                if (executor.isShutdown()) throw new RejectedExecutionException("Image job workers are shut down");
+                task.run();
+            });
+        this.retentionMinutes = retentionMinutes;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        Gauge.builder("pawfund.image_jobs.queued", workers, w -> w.getQueue().size()).register(meterRegistry);
+        Gauge.builder("pawfund.image_jobs.active", workers, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public ImageJob submit(Long petId, List<MultipartFile> files) throws IOException {
+        evictExpired();
+        // File multipart của request bị xoá khi request kết thúc nên phải chuyển ra spool trước khi trả 202
+        List<Path> spooled = new ArrayList<>(files.size());
+        List<String> filenames = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                spooled.add(uploadSpool.spool(file));
+                filenames.add(file.getOriginalFilename());
+            }
+        } catch (IOException | RuntimeException e) {
+            spooled.forEach(uploadSpool::delete);
+            throw e;
+        }
+
+        ImageJob job = new ImageJob(UUID.randomUUID().toString(), petId, files.size());
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(new Task(job, spooled, filenames));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            spooled.forEach(uploadSpool::delete);
+            throw e;
+        }
+        return job;
+    }
+
+    @Override
+    public Optional<ImageJob> find(Long petId, String jobId) {
+        ImageJob job = jobs.get(jobId);
+        return job != null && job.getPetId().equals(petId) ? Optional.of(job) : Optional.empty();
+    }
+
+    private void run(ImageJob job, List<Path> spooled, List<String> filenames) {
+        job.start();
+        try {
+            List<UploadResult> results = cloudinaryService.uploadAllPaths(spooled, filenames, job::record);
+            List<StoredImage> images = new ArrayList<>();
+            for (UploadResult result : results) {
+                if (result.isSuccess()) images.add(result.image());
+            }
+            // Pet có thể đã bị xoá trong lúc upload
+            if (!images.isEmpty() && petService.findVersionStamp(job.getPetId()).isPresent()) {
+                petImageService.addAll(job.getPetId(), images);
+            }
+            System.out.println("Image job " + job.getId() + " for pet " + job.getPetId() + ": "
+                + images.size() + "/" + job.getTotal() + " uploaded");
+        } catch (RuntimeException e) {
+            System.err.println("Image job " + job.getId() + " failed: " + e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            job.finish();
+            spooled.forEach(uploadSpool::delete);
+        }
+    }
+
+    private void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isDone() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Cho các job đang chạy và trong hàng đợi tối đa shutdown-timeout-seconds để xong; job còn lại bị huỷ,
+     * đánh dấu FAILED và xoá file spool (job đang chạy tự xoá trong finally khi bị ngắt).
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (workers.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> unfinished = workers.shutdownNow();
+        for (Runnable runnable : unfinished) {
+            if (!(runnable instanceof Task task)) continue;
+            task.job.fail("Server shut down before the upload started");
+            task.job.finish();
+            task.spooled.forEach(uploadSpool::delete);
+        }
+        System.err.println("Image job workers stopped after " + shutdownTimeoutSeconds + "s, "
+            + unfinished.size() + " queued jobs cancelled");
+    }
+
+    // Giữ job và file spool để shutdown() dọn được các job chưa chạy
+    private final class Task implements Runnable {
+        private final ImageJob job;
+        private final List<Path> spooled;
+        private final List<String> filenames;
+
+        Task(ImageJob job, List<Path> spooled, List<String> filenames) {
+            this.job = job;
+            this.spooled = spooled;
+            this.filenames = filenames;
+        }
+
+        @Override
+        public void run() {
+            ImageJobServiceImpl.this.run(job, spooled, filenames);
+        }
+    }
+}
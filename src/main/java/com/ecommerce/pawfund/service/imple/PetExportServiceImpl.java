@@ -0,0 +1,224 @@
+package com.ecommerce.pawfund.service.imple;
+
+import com.ecommerce.pawfund.repository.PetFilterSql;
+import com.ecommerce.pawfund.service.inter.IPetExportService;
+import com.ecommerce.pawfund.service.inter.IPetService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Xuất toàn bộ catalog pet dạng NDJSON/CSV bằng cursor JDBC một chiều (fetch size cố định),
+ * ghi thẳng từng dòng ra output stream nên bộ nhớ không phụ thuộc số lượng pet.
+ * Không tải entity nên persistence context không giữ gì trong suốt quá trình stream.
+ */
+@Service
+public class PetExportServiceImpl implements IPetExportService {
+    private static final String[] COLUMNS = {
+        "id", "name", "age", "breed", "description", "location", "status", "gender",
+        "vaccinated", "dewormed", "imageUrls", "shelterId", "shelterUsername"
+    };
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private IPetService petService;
+
+    @Value("${pawfund.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public void export(String format, String status, String breed, String search, Integer age, String location,
+                       Integer ageMin, Integer ageMax, String gender, OutputStream out) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        // Tìm kiếm đi qua chỉ mục giống GET /api/pets (đủ mọi kết quả); null = dùng LIKE trong SQL.
+        // Id đi vào SQL dưới dạng một mảng nên DB chỉ đọc đúng các pet khớp
+        List<Long> ids = search != null && !search.isEmpty() ? petService.searchIds(search) : null;
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(status, breed, ids == null ? search : null, age, location, ageMin, ageMax, gender, ids, params);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = csv ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        if (ids != null && ids.isEmpty()) {
+            rowWriter.finish();
+            return;
+        }
+
+        // PostgreSQL chỉ dùng cursor phía server khi autocommit = false, nên chạy trong transaction chỉ đọc
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        try {
+            tx.executeWithoutResult(txStatus -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                PetFilterSql.bind(ps, params);
+                return ps;
+            }, rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.finish();
+    }
+
+    private static String buildQuery(String status, String breed, String search, Integer age, String location,
+                                     Integer ageMin, Integer ageMax, String gender, List<Long> ids, List<Object> params) {
+        return "SELECT p.id, p.name, p.age, p.breed, p.description, p.location, p.status, p.gender, " +
+            "p.vaccinated, p.dewormed, " +
+            "(SELECT string_agg(i.url, ',' ORDER BY i.position, i.id) FROM pet_images i WHERE i.pet_id = p.id) AS image_urls, p.shelter_id, u.username AS shelter_username " +
+            "FROM pets p LEFT JOIN users u ON u.id = p.shelter_id WHERE 1 = 1" +
+            PetFilterSql.conditions(status, breed, search, age, location, ageMin, ageMax, gender, ids, params) +
+            " ORDER BY p.id";
+    }
+
+    private abstract static class RowWriter {
+        final Writer writer;
+        int rows;
+
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void write(ResultSet rs) throws IOException, SQLException {
+            writeRow(rs);
+            // flush định kỳ để client nhận dữ liệu dần, không dồn trong buffer
+            if (++rows % FLUSH_EVERY == 0) flushRows();
+        }
+
+        abstract void writeRow(ResultSet rs) throws IOException, SQLException;
+
+        void flushRows() throws IOException {
+            writer.flush();
+        }
+
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            super(writer);
+            this.json = new JsonFactory().createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws IOException, SQLException {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeStringField("name", rs.getString("name"));
+            writeNullableInt("age", rs, "age");
+            json.writeStringField("breed", rs.getString("breed"));
+            json.writeStringField("description", rs.getString("description"));
+            json.writeStringField("location", rs.getString("location"));
+            json.writeStringField("status", rs.getString("status"));
+            json.writeStringField("gender", rs.getString("gender"));
+            writeNullableBoolean("vaccinated", rs, "vaccinated");
+            writeNullableBoolean("dewormed", rs, "dewormed");
+            json.writeStringField("imageUrls", rs.getString("image_urls"));
+            long shelterId = rs.getLong("shelter_id");
+            if (rs.wasNull()) json.writeNullField("shelterId");
+            else json.writeNumberField("shelterId", shelterId);
+            json.writeStringField("shelterUsername", rs.getString("shelter_username"));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeNullableInt(String field, ResultSet rs, String column) throws IOException, SQLException {
+            int value = rs.getInt(column);
+            if (rs.wasNull()) json.writeNullField(field);
+            else json.writeNumberField(field, value);
+        }
+
+        private void writeNullableBoolean(String field, ResultSet rs, String column) throws IOException, SQLException {
+            boolean value = rs.getBoolean(column);
+            if (rs.wasNull()) json.writeNullField(field);
+            else json.writeBooleanField(field, value);
+        }
+
+        @Override
+        void flushRows() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+        CsvRowWriter(Writer writer) throws IOException {
+            super(writer);
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws IOException, SQLException {
+            writer.write(Long.toString(rs.getLong("id")));
+            writeField(rs.getString("name"));
+            writeField(rs.getString("age"));
+            writeField(rs.getString("breed"));
+            writeField(rs.getString("description"));
+            writeField(rs.getString("location"));
+            writeField(rs.getString("status"));
+            writeField(rs.getString("gender"));
+            writeField(booleanText(rs, "vaccinated"));
+            writeField(booleanText(rs, "dewormed"));
+            writeField(rs.getString("image_urls"));
+            writeField(rs.getString("shelter_id"));
+            writeField(rs.getString("shelter_username"));
+            writer.write("\r\n");
+        }
+
+        private static String booleanText(ResultSet rs, String column) throws SQLException {
+            boolean value = rs.getBoolean(column);
+            return rs.wasNull() ? null : Boolean.toString(value);
+        }
+
+        // RFC 4180: bọc trong dấu nháy kép khi có dấu phẩy, nháy kép hoặc xuống dòng
+        private void writeField(String value) throws IOException {
+            writer.write(',');
+            if (value == null) return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.pawfund.service.imple;
+
+import com.ecommerce.pawfund.cache.AfterCommit;
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.PetCardCache;
+import com.ecommerce.pawfund.cache.PetQueryCache;
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.entity.PetImage;
+import com.ecommerce.pawfund.repository.PetImageRepository;
+import com.ecommerce.pawfund.service.inter.IImageDeletionService;
+import com.ecommerce.pawfund.service.inter.IPetImageService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class PetImageServiceImpl implements IPetImageService {
+    @Autowired
+    private PetImageRepository petImageRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PetQueryCache petQueryCache;
+    @Autowired
+    private PetCardCache petCardCache;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private IImageDeletionService imageDeletionService;
+
+    @Override
+    public List<PetImage> findByPetId(Long petId) {
+        return petImageRepository.findByPetIdOrderByPositionAscIdAsc(petId);
+    }
+
+    @Override
+    public Map<Long, StoredImage> findCovers(Collection<Long> petIds) {
+        Map<Long, StoredImage> covers = new HashMap<>();
+        if (petIds.isEmpty()) return covers;
+        for (PetImage image : petImageRepository.findCovers(petIds)) {
+            covers.putIfAbsent(image.getPetId(), StoredImage.of(image));
+        }
+        return covers;
+    }
+
+    @Override
+    public void attachImages(Collection<Pet> pets) {
+        Map<Long, List<PetImage>> byPet = new HashMap<>();
+        for (Pet pet : pets) {
+            if (pet != null && pet.getId() != null) byPet.put(pet.getId(), new ArrayList<>());
+        }
+        if (byPet.isEmpty()) return;
+        for (PetImage image : petImageRepository.findByPetIdInOrderByPetIdAscPositionAscIdAsc(byPet.keySet())) {
+            byPet.get(image.getPetId()).add(image);
+        }
+        for (Pet pet : pets) {
+            if (pet == null || pet.getId() == null) continue;
+            List<PetImage> images = byPet.get(pet.getId());
+            pet.setImages(images);
+            pet.setImageUrls(images.isEmpty() ? null : String.join(",", images.stream().map(PetImage::getUrl).toList()));
+        }
+    }
+
+    // Thêm một dòng vào cuối danh sách, không đụng tới các ảnh khác
+    @Override
+    @Transactional
+    public PetImage add(Long petId, String url, Integer width, Integer height, String contentHash) {
+        petImageRepository.lockPet(petId);
+        PetImage image = new PetImage();
+        image.setPetId(petId);
+        image.setPosition(petImageRepository.findMaxPosition(petId) + 1);
+        image.setUrl(url);
+        image.setWidth(width);
+        image.setHeight(height);
+        image.setContentHash(contentHash);
+        PetImage saved = petImageRepository.save(image);
+        imagesChanged(petId);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<PetImage> addAll(Long petId, List<StoredImage> stored) {
+        // Hai worker xử lý job ảnh của cùng pet: không khoá thì cả hai cùng đọc một MAX(position)
+        petImageRepository.lockPet(petId);
+        int position = petImageRepository.findMaxPosition(petId) + 1;
+        List<PetImage> images = new ArrayList<>(stored.size());
+        for (StoredImage s : stored) {
+            PetImage image = new PetImage();
+            image.setPetId(petId);
+            image.setPosition(position++);
+            image.setUrl(s.url());
+            // original() trỏ card/thumb về chính url, không lưu lặp
+            image.setCardUrl(s.url().equals(s.cardUrl()) ? null : s.cardUrl());
+            image.setThumbUrl(s.url().equals(s.thumbUrl()) ? null : s.thumbUrl());
+            image.setWidth(s.width());
+            image.setHeight(s.height());
+            image.setContentHash(s.contentHash());
+            images.add(image);
+        }
+        List<PetImage> saved = petImageRepository.saveAll(images);
+        imagesChanged(petId);
+        return saved;
+    }
+
+    @Override
+    public boolean remove(Long petId, String url) {
+        List<PetImage> rows = petImageRepository.findByPetIdAndUrl(petId, url);
+        boolean removed = petImageRepository.deleteByPetIdAndUrl(petId, url) > 0;
+        if (removed) {
+            imageDeletionService.enqueue(storedUrls(rows));
+            imagesChanged(petId);
+        }
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    public List<PetImage> replaceAll(Long petId, List<StoredImage> images) {
+        List<PetImage> previous = petImageRepository.findByPetIdOrderByPositionAscIdAsc(petId);
+        petImageRepository.deleteByPetId(petId);
+        List<PetImage> saved = addAll(petId, images);
+        imageDeletionService.enqueue(storedUrls(previous));
+        return saved;
+    }
+
+    @Override
+    public void deleteByPetId(Long petId) {
+        List<PetImage> previous = petImageRepository.findByPetIdOrderByPositionAscIdAsc(petId);
+        petImageRepository.deleteByPetId(petId);
+        imageDeletionService.enqueue(storedUrls(previous));
+        imagesChanged(petId);
+    }
+
+    // Bản full + card + thumb của các dòng đã gỡ; worker tự bỏ URL còn được dùng ở nơi khác
+    private static List<String> storedUrls(List<PetImage> images) {
+        List<String> urls = new ArrayList<>();
+        for (PetImage image : images) {
+            urls.add(image.getUrl());
+            if (image.getCardUrl() != null) urls.add(image.getCardUrl());
+            if (image.getThumbUrl() != null) urls.add(image.getThumbUrl());
+        }
+        return urls;
+    }
+
+    @Override
+    public long countByPetId(Long petId) {
+        return petImageRepository.countByPetId(petId);
+    }
+
+    // Ảnh bìa nằm trong thẻ pet đã cache, danh sách ảnh nằm trong trang chi tiết.
+    // version của pet tăng cùng transaction, cache bỏ sau commit
+    private void imagesChanged(Long petId) {
+        catalogVersion.touchPet(petId);
+        AfterCommit.run(() -> {
+            petQueryCache.evict(petId);
+            petCardCache.evict(petId);
+            catalogVersion.changed(CatalogVersion.Scope.PETS);
+        });
+    }
+
+    /**
+     * Chuyển dữ liệu cũ: cột pets.image_urls ("url1,url2") thành các dòng pet_images rồi xoá giá trị cột.
+     * Chạy lại nhiều lần vẫn an toàn vì chỉ đụng tới pet còn giá trị trong cột cũ.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyImageUrls() {
+        List<Object[]> legacy;
+        try {
+            legacy = jdbcTemplate.query(
+                "SELECT id, image_urls FROM pets WHERE image_urls IS NOT NULL AND image_urls <> ''",
+                (rs, i) -> new Object[] { rs.getLong("id"), rs.getString("image_urls") });
+        } catch (Exception e) {
+            // DB mới không có cột cũ
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> cleared = new ArrayList<>();
+        for (Object[] pet : legacy) {
+            Long petId = (Long) pet[0];
+            cleared.add(new Object[] { petId });
+            if (petImageRepository.countByPetId(petId) > 0) continue;
+            int position = 0;
+            for (String url : ((String) pet[1]).split(",")) {
+                if (url.isBlank()) continue;
+                rows.add(new Object[] { petId, position++, url.trim() });
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO pet_images (pet_id, position, url) VALUES (?, ?, ?)", rows);
+        }
+        if (!cleared.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE pets SET image_urls = NULL WHERE id = ?", cleared);
+            petQueryCache.clear();
+            petCardCache.clear();
+            catalogVersion.changed(CatalogVersion.Scope.PETS);
+            System.out.println("Migrated " + rows.size() + " legacy image urls of " + cleared.size() + " pets into pet_images");
+        }
+    }
+}
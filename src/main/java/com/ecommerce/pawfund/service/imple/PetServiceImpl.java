@@ -1,43 +1,149 @@
 package com.ecommerce.pawfund.service.imple;
 
+import com.ecommerce.pawfund.cache.AfterCommit;
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.PetCardCache;
+import com.ecommerce.pawfund.cache.PetQueryCache;
+import com.ecommerce.pawfund.cache.PetQueryKey;
+import com.ecommerce.pawfund.cache.PetSnapshot;
+import com.ecommerce.pawfund.cache.VersionStamp;
+import com.ecommerce.pawfund.dto.PetCardView;
+import com.ecommerce.pawfund.dto.PetResponseDTO;
+import com.ecommerce.pawfund.dto.ShelterDTO;
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.embedding.PetEmbeddingIndex;
 import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.geo.GeoPoint;
+import com.ecommerce.pawfund.geo.PetGeoIndex;
 import com.ecommerce.pawfund.repository.PetRepository;
+import com.ecommerce.pawfund.repository.PetSpecifications;
+import com.ecommerce.pawfund.search.CompressedBitmap;
+import com.ecommerce.pawfund.search.FullTextSearchSupport;
+import com.ecommerce.pawfund.search.PetAttributeIndex;
+import com.ecommerce.pawfund.search.PetSearchIndex;
+import com.ecommerce.pawfund.search.PetSuggestIndex;
+import com.ecommerce.pawfund.search.SearchMode;
+import com.ecommerce.pawfund.service.inter.IPetImageService;
 import com.ecommerce.pawfund.service.inter.IPetService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.Collections;
+import java.util.Set;
 
 @Service
 public class PetServiceImpl implements IPetService {
+    private static final int MAX_IN_LIST = 5000;
+
     @Autowired
     private PetRepository petRepository;
+    @Autowired
+    private PetSearchIndex petSearchIndex;
+    @Autowired
+    private FullTextSearchSupport fullTextSearch;
+    @Autowired
+    private PetAttributeIndex petAttributeIndex;
+    @Autowired
+    private PetSuggestIndex petSuggestIndex;
+    @Autowired
+    private PetGeoIndex petGeoIndex;
+    @Autowired
+    private PetEmbeddingIndex petEmbeddingIndex;
+    @Autowired
+    private IPetImageService petImageService;
+    @Autowired
+    private PetQueryCache petQueryCache;
+    @Autowired
+    private PetCardCache petCardCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${pawfund.search.mode:index}")
+    private String searchMode;
+    @Value("${pawfund.embedding.max-hits:200}")
+    private int maxSemanticHits;
+    @Value("${pawfund.embedding.min-score:0.2}")
+    private float minSemanticScore;
+    @Value("${pawfund.search.max-hits:5000}")
+    private int maxSearchHits;
 
     @Override
     public Optional<Pet> findById(Long id) {
         return petRepository.findById(id);
     }
 
+    @Override
+    public Optional<VersionStamp> findVersionStamp(Long id) {
+        return petRepository.findVersionStampById(id);
+    }
+
     @Override
     public List<Pet> findAll() {
         return petRepository.findAll();
     }
 
     @Override
+    @Transactional
     public Pet save(Pet pet) {
-        return petRepository.save(pet);
+        GeoPoint point = petGeoIndex.locate(pet);
+        if (point != null) {
+            pet.setLatitude(point.lat());
+            pet.setLongitude(point.lon());
+        }
+        PetSnapshot before = pet.getId() != null ? loadSnapshot(pet.getId()) : null;
+        // version = 1 chỉ dùng khi INSERT; pet đã có thì tăng trong DB cùng transaction rồi đọc lại
+        pet.setVersion(1L);
+        pet.setUpdatedAt(LocalDateTime.now());
+        Pet saved = petRepository.save(pet);
+        if (before != null) saved.setVersion(catalogVersion.nextVersion(CatalogVersion.Scope.PETS, saved.getId()));
+        PetSnapshot after = PetSnapshot.of(saved);
+        // Chỉ mục, cache và ETag đổi sau commit: trước đó request khác vẫn đọc dòng cũ
+        AfterCommit.run(() -> {
+            petSearchIndex.index(saved);
+            petAttributeIndex.index(saved);
+            petSuggestIndex.index(saved);
+            petGeoIndex.index(saved);
+            petEmbeddingIndex.index(saved);
+            petQueryCache.invalidate(before, after);
+            petCardCache.evict(saved.getId());
+            catalogVersion.changed(CatalogVersion.Scope.PETS);
+        });
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
+        PetSnapshot before = loadSnapshot(id);
+        petImageService.deleteByPetId(id);
         petRepository.deleteById(id);
+        AfterCommit.run(() -> {
+            petQueryCache.invalidate(before, null);
+            petCardCache.evict(id);
+            catalogVersion.changed(CatalogVersion.Scope.PETS);
+            petSearchIndex.remove(id);
+            petAttributeIndex.remove(id);
+            petSuggestIndex.remove(id);
+            petGeoIndex.remove(id);
+            petEmbeddingIndex.remove(id);
+        });
     }
 
     @Override
@@ -56,43 +162,257 @@ public class PetServiceImpl implements IPetService {
     }
 
     @Override
-    public Page<Pet> findByFilterAndSearch(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable) {
-        List<Pet> all = petRepository.findAll();
-        Stream<Pet> stream = all.stream();
+    public Page<PetResponseDTO> findByFilterAndSearch(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return findUncached(status, breed, search, age, location, ageMin, ageMax, gender, pageable);
+        }
+        PetQueryKey key = PetQueryKey.of(status, breed, search, age, location, ageMin, ageMax, gender,
+                                         pageable.getPageNumber(), pageable.getPageSize());
+        return petQueryCache.get(key, () -> findUncached(status, breed, search, age, location, ageMin, ageMax, gender, pageable));
+    }
 
-        if (status != null) {
-            stream = stream.filter(p -> p.getStatus() != null && p.getStatus().name().equalsIgnoreCase(status));
+    private Page<PetResponseDTO> findUncached(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable) {
+        boolean hasSearch = search != null && !search.isEmpty();
+        if (hasSearch && pageable.getSort().isUnsorted()) {
+            // Chỉ mục/full-text trả về id đã xếp hạng: trang đi theo thứ hạng, các điều kiện khác chỉ lọc
+            List<Long> ranked = searchIds(search);
+            if (ranked != null) {
+                if (ranked.isEmpty()) return Page.empty(pageable);
+                if (canUseAttributeIndex(breed, location, pageable)) {
+                    CompressedBitmap matches = petAttributeIndex.filter(status, gender, age, ageMin, ageMax, null, null, null);
+                    return toCardPage(pageOfRanked(ranked, matches, pageable));
+                }
+                return pageOfRanked(ranked, PetSpecifications.filter(status, breed, null, age, location, ageMin, ageMax, gender), pageable);
+            }
         }
-        if (breed != null) {
-            stream = stream.filter(p -> p.getBreed() != null && p.getBreed().toLowerCase().contains(breed.toLowerCase()));
+        if (!hasSearch && canUseAttributeIndex(breed, location, pageable)) {
+            return toCardPage(findByAttributeIndex(status, age, ageMin, ageMax, gender, pageable));
         }
-        if (search != null) {
-            stream = stream.filter(p ->
-                (p.getName() != null && p.getName().toLowerCase().contains(search.toLowerCase())) ||
-                (p.getDescription() != null && p.getDescription().toLowerCase().contains(search.toLowerCase()))
-            );
+        Specification<Pet> spec = filterSpec(status, breed, search, age, location, ageMin, ageMax, gender);
+        if (spec == null) return Page.empty(pageable);
+        // Chỉ lấy id của trang, các cột hiển thị đọc bằng một câu projection
+        return toCardPage(petRepository.findIds(spec, withStableSort(pageable)));
+    }
+
+    // breed/location là tìm chuỗi con nên không có trong bitmap; thứ tự bitmap luôn là theo id
+    private boolean canUseAttributeIndex(String breed, String location, Pageable pageable) {
+        return petAttributeIndex.isReady()
+            && (breed == null || breed.isEmpty())
+            && (location == null || location.isEmpty())
+            && pageable.isPaged()
+            && pageable.getSort().isUnsorted();
+    }
+
+    // Lọc bằng phép AND bitmap, trả về id của trang
+    private Page<Long> findByAttributeIndex(String status, Integer age, Integer ageMin, Integer ageMax, String gender, Pageable pageable) {
+        CompressedBitmap matches = petAttributeIndex.filter(status, gender, age, ageMin, ageMax, null, null, null);
+        int[] pageIds = matches.range(pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = new ArrayList<>(pageIds.length);
+        for (int id : pageIds) ids.add((long) id);
+        return new PageImpl<>(ids, pageable, matches.cardinality());
+    }
+
+    // Duyệt ranked theo thứ hạng, chỉ giữ id có trong bitmap lọc; không truy vấn DB
+    private static Page<Long> pageOfRanked(List<Long> ranked, CompressedBitmap matches, Pageable pageable) {
+        List<Long> pageIds = new ArrayList<>(pageable.getPageSize());
+        long total = 0;
+        for (Long id : ranked) {
+            if (id > Integer.MAX_VALUE || !matches.contains(id.intValue())) continue;
+            if (total >= pageable.getOffset() && pageIds.size() < pageable.getPageSize()) pageIds.add(id);
+            total++;
         }
-        if (age != null) {
-            stream = stream.filter(p -> p.getAge() != null && p.getAge().equals(age));
+        return new PageImpl<>(pageIds, pageable, total);
+    }
+
+    private Page<PetResponseDTO> toCardPage(Page<Long> ids) {
+        return new PageImpl<>(findCardsByIds(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    @Override
+    public List<PetResponseDTO> findAllByIds(List<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        return petCardCache.getAll(ids, this::findCardsByIds);
+    }
+
+    @Override
+    public List<Pet> findPetsByIds(List<Long> ids) {
+        Map<Long, Pet> byId = new HashMap<>();
+        for (Pet pet : petRepository.findAllById(ids)) byId.put(pet.getId(), pet);
+        List<Pet> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Pet pet = byId.get(id);
+            if (pet != null) ordered.add(pet);
         }
-        if (location != null) {
-            stream = stream.filter(p -> p.getLocation() != null && p.getLocation().toLowerCase().contains(location.toLowerCase()));
+        return ordered;
+    }
+
+    @Override
+    public List<PetResponseDTO> findCardsByIds(List<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        Map<Long, PetCardView> byId = new HashMap<>();
+        for (PetCardView view : petRepository.findCardsByIdIn(ids)) byId.put(view.getId(), view);
+        Map<Long, StoredImage> covers = petImageService.findCovers(byId.keySet());
+        List<PetResponseDTO> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PetCardView view = byId.get(id);
+            if (view != null) ordered.add(toCard(view, covers.get(id)));
         }
-        if (ageMin != null) {
-            stream = stream.filter(p -> p.getAge() != null && p.getAge() >= ageMin);
+        return ordered;
+    }
+
+    private static PetResponseDTO toCard(PetCardView view, StoredImage cover) {
+        PetResponseDTO dto = new PetResponseDTO();
+        dto.setId(view.getId());
+        dto.setName(view.getName());
+        if (cover != null) {
+            dto.setImageUrls(cover.url());
+            dto.setCardImageUrl(cover.cardUrl());
+            dto.setThumbnailUrl(cover.thumbUrl());
         }
-        if (ageMax != null) {
-            stream = stream.filter(p -> p.getAge() != null && p.getAge() <= ageMax);
+        dto.setDescription(view.getDescription());
+        dto.setAge(view.getAge() != null ? view.getAge() : 0);
+        dto.setBreed(view.getBreed());
+        dto.setLocation(view.getLocation());
+        dto.setStatus(view.getStatus() != null ? view.getStatus().name() : null);
+        dto.setGender(view.getGender() != null ? view.getGender().name() : null);
+        dto.setVaccinated(view.getVaccinated());
+        dto.setDewormed(view.getDewormed());
+        dto.setLatitude(view.getLatitude());
+        dto.setLongitude(view.getLongitude());
+        if (view.getShelterId() != null) {
+            ShelterDTO shelter = new ShelterDTO();
+            shelter.setUsername(view.getShelterUsername());
+            shelter.setEmail(view.getShelterEmail());
+            shelter.setFullName(view.getShelterFullName());
+            shelter.setPhone(view.getShelterPhone());
+            shelter.setAddress(view.getShelterAddress());
+            dto.setShelter(shelter);
         }
-        if (gender != null) {
-            stream = stream.filter(p -> p.getGender() != null && p.getGender().name().equalsIgnoreCase(gender));
+        return dto;
+    }
+
+    @Override
+    public List<PetResponseDTO> findByFilterAfter(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, long afterId, int limit) {
+        Specification<Pet> spec = filterSpec(status, breed, search, age, location, ageMin, ageMax, gender);
+        if (spec == null) return new ArrayList<>();
+        // seek trên khoá chính, không cần đếm tổng như Page
+        return findCardsByIds(petRepository.findIds(spec.and(PetSpecifications.idGreaterThan(afterId)), Sort.by("id"), limit));
+    }
+
+    @Override
+    public Page<PetResponseDTO> findNear(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, double lat, double lon, double radiusKm, Pageable pageable) {
+        // Lưới chỉ trả về pet trong bán kính (đã sắp theo khoảng cách); DB chỉ lọc id của các pet đó
+        List<Long> nearby = petGeoIndex.within(lat, lon, radiusKm);
+        if (nearby.isEmpty()) return Page.empty(pageable);
+        return pageOfRanked(nearby, filterSpec(status, breed, search, age, location, ageMin, ageMax, gender), pageable);
+    }
+
+    @Override
+    public Page<PetResponseDTO> findBySemanticQuery(String q, String status, String breed, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable) {
+        // k-NN trên HNSW lấy tối đa max-hits ứng viên đủ độ tương đồng, sau đó mới áp bộ lọc;
+        // kết quả vì vậy có trần max-hits, totalElements là số pet khớp trong các ứng viên đó
+        List<Long> ranked = petEmbeddingIndex.search(q, maxSemanticHits, minSemanticScore);
+        if (ranked == null || ranked.isEmpty()) return Page.empty(pageable);
+        return pageOfRanked(ranked, filterSpec(status, breed, null, age, location, ageMin, ageMax, gender), pageable);
+    }
+
+    @Override
+    public List<PetResponseDTO> findSimilar(Long petId, int k) {
+        List<Long> ids = petEmbeddingIndex.similar(petId, k);
+        return ids == null ? new ArrayList<>() : findCardsByIds(ids);
+    }
+
+    /**
+     * Giữ thứ tự của ranked, chỉ lấy id khớp spec rồi tải đúng các pet của trang.
+     * ranked được giao với spec theo từng đoạn MAX_IN_LIST id (IN trên khoá chính, không quét cả bảng);
+     * đủ trang rồi thì các đoạn còn lại chỉ được COUNT để totalElements vẫn chính xác.
+     */
+    private Page<PetResponseDTO> pageOfRanked(List<Long> ranked, Specification<Pet> spec, Pageable pageable) {
+        if (spec == null) return Page.empty(pageable);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int pageSize = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        List<Long> pageIds = new ArrayList<>();
+        long total = 0;
+        for (int from = 0; from < ranked.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = ranked.subList(from, Math.min(from + MAX_IN_LIST, ranked.size()));
+            Specification<Pet> chunkSpec = spec.and(PetSpecifications.idIn(chunk));
+            if (pageIds.size() >= pageSize) {
+                total += petRepository.count(chunkSpec);
+                continue;
+            }
+            Set<Long> matching = new HashSet<>(petRepository.findIds(chunkSpec));
+            for (Long id : chunk) {
+                if (!matching.contains(id)) continue;
+                if (total >= offset && pageIds.size() < pageSize) pageIds.add(id);
+                total++;
+            }
+        }
+        return new PageImpl<>(findCardsByIds(pageIds), pageable, total);
+    }
+
+    @Override
+    public Map<String, Long> countStats(Long shelterId) {
+        return petRepository.countStats(shelterId);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> countFacets(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender) {
+        // Id của chỉ mục đi vào một tham số mảng nên không cần giới hạn số id như IN
+        List<Long> ids = search != null && !search.isEmpty() ? searchIds(search) : null;
+        return petRepository.countFacets(status, breed, ids == null ? search : null, age, location, ageMin, ageMax, gender, ids);
+    }
+
+    // null = chắc chắn không có kết quả (search không khớp pet nào)
+    private Specification<Pet> filterSpec(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender) {
+        Specification<Pet> spec = PetSpecifications.filter(status, breed, null, age, location, ageMin, ageMax, gender);
+        if (search != null && !search.isEmpty()) {
+            // Các đường dùng spec này sắp theo cột (cursor, sort do client chọn, facet) nên không cần thứ hạng
+            List<Long> ids = searchIds(search);
+            if (ids == null || ids.size() > MAX_IN_LIST) {
+                // quá nhiều id cho một câu IN thì lọc bằng LIKE, không cắt bớt kết quả
+                spec = spec.and(PetSpecifications.nameOrDescriptionContains(search));
+            } else if (ids.isEmpty()) {
+                return null;
+            } else {
+                spec = spec.and(PetSpecifications.idIn(ids));
+            }
+        }
+        return spec;
+    }
+
+    // null = không có chỉ mục phù hợp, dùng LIKE
+    @Override
+    public List<Long> searchIds(String search) {
+        switch (SearchMode.from(searchMode)) {
+            case INDEX:
+                // Chỉ mục trong bộ nhớ trả về đủ mọi kết quả, không giới hạn số hit
+                return petSearchIndex.isReady() ? petSearchIndex.search(search, Integer.MAX_VALUE) : null;
+            case FULLTEXT:
+                if (!fullTextSearch.isActive()) return null;
+                String query = FullTextSearchSupport.toPrefixQuery(search);
+                if (query == null) return null;
+                // Lấy dư một id để biết có bị cắt không; quá max-hits thì dùng LIKE thay vì trả thiếu kết quả
+                List<Long> ranked = petRepository.searchIdsByFullText(query, maxSearchHits + 1);
+                return ranked.size() > maxSearchHits ? null : ranked;
+            default:
+                return null;
         }
-        List<Pet> filtered = stream.collect(Collectors.toList());
+    }
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filtered.size());
-        List<Pet> pageContent = start > end ? Collections.emptyList() : filtered.subList(start, end);
+    // Đọc thẳng qua JDBC để lấy giá trị đang có trong DB, kể cả khi entity đã bị sửa trong persistence context
+    private PetSnapshot loadSnapshot(Long id) {
+        List<PetSnapshot> rows = jdbcTemplate.query(
+            "SELECT id, status, gender, age, breed, location, name, description, version FROM pets WHERE id = ?",
+            (rs, i) -> new PetSnapshot(rs.getLong("id"), rs.getString("status"), rs.getString("gender"),
+                (Integer) rs.getObject("age"), rs.getString("breed"), rs.getString("location"),
+                rs.getString("name"), rs.getString("description"), (Long) rs.getObject("version")),
+            id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
 
-        return new PageImpl<>(pageContent, pageable, filtered.size());
+    // Phân trang LIMIT/OFFSET cần thứ tự cố định, mặc định sắp theo id
+    private Pageable withStableSort(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) return pageable;
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
     }
-} 
\ No newline at end of file
+}
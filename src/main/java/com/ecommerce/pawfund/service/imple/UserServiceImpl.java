@@ -1,10 +1,17 @@
 package com.ecommerce.pawfund.service.imple;
 
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.PetCardCache;
+import com.ecommerce.pawfund.cache.PetQueryCache;
 import com.ecommerce.pawfund.entity.User;
+import com.ecommerce.pawfund.geo.Gazetteer;
+import com.ecommerce.pawfund.geo.GeoPoint;
+import com.ecommerce.pawfund.geo.PetGeoIndex;
 import com.ecommerce.pawfund.repository.UserRepository;
 import com.ecommerce.pawfund.service.inter.IUserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +20,16 @@ import java.util.Optional;
 public class UserServiceImpl implements IUserService {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private Gazetteer gazetteer;
+    @Autowired
+    private PetQueryCache petQueryCache;
+    @Autowired
+    private PetCardCache petCardCache;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private PetGeoIndex petGeoIndex;
 
     @Override
     public Optional<User> findById(Long id) {
@@ -31,11 +48,32 @@ public class UserServiceImpl implements IUserService {
 
     @Override
     public User save(User user) {
-        return userRepository.save(user);
+        // Geocode địa chỉ bằng gazetteer offline để tìm shelter/pet theo khoảng cách
+        GeoPoint point = gazetteer.geocode(user.getAddress());
+        if (point != null) {
+            user.setLatitude(point.lat());
+            user.setLongitude(point.lon());
+        }
+        User saved = userRepository.save(user);
+        // Thông tin shelter nằm trong thẻ pet và trang chi tiết; tên user nằm trong event
+        if (saved.getRole() == User.Role.SHELTER) {
+            // Pet không geocode được location lấy toạ độ của shelter, phải cập nhật theo địa chỉ mới
+            petGeoIndex.relocateShelterPets(saved.getId(), saved.getLatitude(), saved.getLongitude());
+            petQueryCache.clear();
+            petCardCache.clear();
+            catalogVersion.touchShelterPets(saved.getId());
+        }
+        catalogVersion.changed(CatalogVersion.Scope.EVENTS);
+        return saved;
     }
 
     @Override
     public List<User> findAll() {
         return userRepository.findAll();
     }
+
+    @Override
+    public List<User> findAfter(long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
 } 
\ No newline at end of file
@@ -15,5 +15,6 @@ public interface IAdoptionService {
     
     // Admin/Shelter methods
     List<Adoption> getAllAdoptions();
+    List<Adoption> findAfter(long afterId, int limit);
     Adoption updateAdoptionStatus(Long adoptionId, String status, String adminNotes, String shelterNotes);
 } 
\ No newline at end of file
@@ -1,12 +1,25 @@
 package com.ecommerce.pawfund.service.inter;
 
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.dto.UploadResult;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ICloudinaryService {
     String uploadFile(MultipartFile file) throws IOException;
-    List<String> uploadFiles(List<MultipartFile> files) throws IOException;
+    // Ảnh pet: lưu các bản thu nhỏ thay cho ảnh gốc
+    List<StoredImage> uploadFiles(List<MultipartFile> files) throws IOException;
+    // Upload song song (có giới hạn), giữ thứ tự và báo kết quả riêng từng file, không ném lỗi
+    List<UploadResult> uploadAll(List<MultipartFile> files);
+    // Như uploadAll cho các file đã spool ra đĩa; filenames cùng thứ tự với files, onResult gọi theo thứ tự khi từng file xong
+    List<UploadResult> uploadAllPaths(List<Path> files, List<String> filenames, Consumer<UploadResult> onResult);
+    // Upload một file đã nằm trên đĩa (stream từ file, không nạp vào heap)
+    String uploadPath(Path file) throws IOException;
+    // Giải mã một lần, upload bản full/card/thumb; định dạng ImageIO không đọc được thì upload nguyên file
+    StoredImage uploadImage(Path file) throws IOException;
     String uploadBytes(byte[] data, String filename) throws IOException;
     
 } 
\ No newline at end of file
@@ -10,4 +10,5 @@ public interface IDonationService {
     Donation save(Donation donation);
     void deleteById(Long id);
     List<Donation> findByUserId(Long userId);
+    List<Donation> findAfter(long afterId, int limit);
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ecommerce.pawfund.service.inter;
 
+import com.ecommerce.pawfund.cache.VersionStamp;
 import com.ecommerce.pawfund.entity.Event;
 import com.ecommerce.pawfund.dto.EventDTO;
 import java.util.List;
@@ -7,6 +8,8 @@ import java.util.Optional;
 
 public interface IEventService {
     Optional<Event> findById(Long id);
+    // version/updated_at của event, không tải entity (ETag cho GET /api/events/{id})
+    Optional<VersionStamp> findVersionStamp(Long id);
     List<Event> findAll();
     Event save(Event event);
     void deleteById(Long id);
@@ -19,4 +22,6 @@ public interface IEventService {
     List<EventDTO> findByVolunteerIdAsDTO(Long volunteerId);
     EventDTO convertToDTO(Event event);
     EventDTO saveAsDTO(Event event);
+    // Id event theo ts_rank giảm dần; null nếu có hơn limit kết quả (nơi gọi lọc bằng chuỗi con)
+    List<Long> searchIdsByFullText(String search, int limit);
 } 
\ No newline at end of file
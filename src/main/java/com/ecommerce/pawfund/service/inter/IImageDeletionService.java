@@ -0,0 +1,10 @@
+package com.ecommerce.pawfund.service.inter;
+
+import java.util.Collection;
+
+public interface IImageDeletionService {
+    // Ghi URL vào hàng đợi image_deletions, không gọi storage; worker nền xoá sau
+    void enqueue(Collection<String> urls);
+    // Xử lý các URL đến hạn, trả về số URL đã xoá khỏi storage
+    int processDue();
+}
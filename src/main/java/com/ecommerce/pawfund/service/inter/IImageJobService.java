@@ -0,0 +1,18 @@
+package com.ecommerce.pawfund.service.inter;
+
+import com.ecommerce.pawfund.dto.ImageJob;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+public interface IImageJobService {
+    /**
+     * Spool các file (đã validate) ra đĩa ngay trong request rồi đưa vào hàng đợi upload nền.
+     * Ảnh upload xong được thêm vào cuối danh sách ảnh của pet.
+     * Hàng đợi đầy thì job chạy luôn trên thread gọi.
+     */
+    ImageJob submit(Long petId, List<MultipartFile> files) throws IOException;
+    Optional<ImageJob> find(Long petId, String jobId);
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.pawfund.service.inter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IPetExportService {
+    void export(String format, String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, OutputStream out) throws IOException;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.pawfund.service.inter;
+
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.entity.PetImage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface IPetImageService {
+    List<PetImage> findByPetId(Long petId);
+    // petId -> ảnh bìa (kèm bản card/thumb), một câu truy vấn cho cả trang
+    Map<Long, StoredImage> findCovers(Collection<Long> petIds);
+    // Gắn toàn bộ ảnh (imageUrls + images) cho các pet, một câu truy vấn
+    void attachImages(Collection<Pet> pets);
+    PetImage add(Long petId, String url, Integer width, Integer height, String contentHash);
+    List<PetImage> addAll(Long petId, List<StoredImage> images);
+    boolean remove(Long petId, String url);
+    List<PetImage> replaceAll(Long petId, List<StoredImage> images);
+    void deleteByPetId(Long petId);
+    long countByPetId(Long petId);
+}
@@ -1,18 +1,40 @@
 package com.ecommerce.pawfund.service.inter;
 
+import com.ecommerce.pawfund.cache.VersionStamp;
+import com.ecommerce.pawfund.dto.PetResponseDTO;
 import com.ecommerce.pawfund.entity.Pet;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface IPetService {
     Optional<Pet> findById(Long id);
+    // version/updated_at của pet, không tải entity (ETag cho GET /api/pets/{id})
+    Optional<VersionStamp> findVersionStamp(Long id);
     List<Pet> findAll();
     Pet save(Pet pet);
     void deleteById(Long id);
     List<Pet> findByBreed(String breed);
     List<Pet> findByStatus(Pet.Status status);
     List<Pet> findByLocation(String location);
-    Page<Pet> findByFilterAndSearch(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable);
+    // Các trang danh sách trả về thẻ pet (projection), không tải entity Pet/User
+    Page<PetResponseDTO> findByFilterAndSearch(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable);
+    List<PetResponseDTO> findByFilterAfter(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, long afterId, int limit);
+    // Toàn bộ id khớp search theo chế độ tìm kiếm hiện tại, sắp theo độ liên quan; null nếu phải lọc bằng LIKE
+    List<Long> searchIds(String search);
+    Page<PetResponseDTO> findNear(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender, double lat, double lon, double radiusKm, Pageable pageable);
+    // Tối đa pawfund.embedding.max-hits pet có độ tương đồng >= pawfund.embedding.min-score, sắp theo độ tương đồng
+    Page<PetResponseDTO> findBySemanticQuery(String q, String status, String breed, Integer age, String location, Integer ageMin, Integer ageMax, String gender, Pageable pageable);
+    List<PetResponseDTO> findSimilar(Long petId, int k);
+    // Giữ thứ tự của ids, bỏ qua id không tồn tại
+    List<PetResponseDTO> findCardsByIds(List<Long> ids);
+    // Như findCardsByIds nhưng qua PetCardCache: chỉ id chưa có trong cache mới được nạp (một câu IN)
+    List<PetResponseDTO> findAllByIds(List<Long> ids);
+    // Entity đầy đủ theo thứ tự ids, một câu IN; id không tồn tại bị bỏ qua
+    List<Pet> findPetsByIds(List<Long> ids);
+    // Thống kê cho dashboard admin, shelterId = null là toàn bộ catalog
+    Map<String, Long> countStats(Long shelterId);
+    Map<String, Map<String, Long>> countFacets(String status, String breed, String search, Integer age, String location, Integer ageMin, Integer ageMax, String gender);
 } 
\ No newline at end of file
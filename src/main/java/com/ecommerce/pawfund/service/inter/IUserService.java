@@ -10,4 +10,5 @@ public interface IUserService {
     Optional<User> findByEmail(String email);
     User save(User user);
     List<User> findAll();
+    List<User> findAfter(long afterId, int limit);
 } 
\ No newline at end of file
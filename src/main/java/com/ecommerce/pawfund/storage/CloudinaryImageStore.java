@@ -0,0 +1,92 @@
+package com.ecommerce.pawfund.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "pawfund.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStore implements ImageStore {
+    // Admin API deleteResources nhận tối đa 100 public_id mỗi lần gọi
+    private static final int DELETE_BATCH = 100;
+
+    private final Cloudinary cloudinary;
+    private final String urlPrefix;
+
+    // uploadPrefix rỗng là API thật (https://api.cloudinary.com); test trỏ vào một HTTP server giả trên máy
+    public CloudinaryImageStore(
+            @Value("${cloudinary.cloud_name}") String cloudName,
+            @Value("${cloudinary.api_key}") String apiKey,
+            @Value("${cloudinary.api_secret}") String apiSecret,
+            @Value("${cloudinary.upload_prefix:}") String uploadPrefix) {
+        Map config = ObjectUtils.asMap(
+                "cloud_name", cloudName,
+                "api_key", apiKey,
+                "api_secret", apiSecret
+        );
+        if (uploadPrefix != null && !uploadPrefix.isBlank()) config.put("upload_prefix", uploadPrefix);
+        this.cloudinary = new Cloudinary(config);
+        this.urlPrefix = "https://res.cloudinary.com/" + cloudName + "/image/upload/";
+    }
+
+    // Upload từ file trên đĩa: HTTP client stream file theo từng buffer nhỏ, không tạo byte[] bằng cả ảnh
+    @Override
+    public String store(Path file) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap("folder", "pawfund"));
+        return uploadResult.get("secure_url").toString();
+    }
+
+    @Override
+    public boolean owns(String url) {
+        return url != null && url.startsWith(urlPrefix);
+    }
+
+    @Override
+    public Set<String> deleteAll(List<String> urls) throws IOException {
+        Map<String, String> urlByPublicId = new HashMap<>();
+        for (String url : urls) {
+            String publicId = publicId(url);
+            if (publicId != null) urlByPublicId.put(publicId, url);
+        }
+        Set<String> gone = new HashSet<>();
+        List<String> publicIds = List.copyOf(urlByPublicId.keySet());
+        for (int from = 0; from < publicIds.size(); from += DELETE_BATCH) {
+            List<String> batch = publicIds.subList(from, Math.min(publicIds.size(), from + DELETE_BATCH));
+            Map result;
+            try {
+                result = cloudinary.api().deleteResources(batch, ObjectUtils.emptyMap());
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Cloudinary delete failed: " + e.getMessage(), e);
+            }
+            Object deleted = result.get("deleted");
+            if (!(deleted instanceof Map<?, ?> statuses)) continue;
+            for (String publicId : batch) {
+                Object status = statuses.get(publicId);
+                if ("deleted".equals(status) || "not_found".equals(status)) gone.add(urlByPublicId.get(publicId));
+            }
+        }
+        return gone;
+    }
+
+    // https://res.cloudinary.com/<cloud>/image/upload/v1712345678/pawfund/abc123.jpg -> pawfund/abc123
+    private String publicId(String url) {
+        if (!owns(url)) return null;
+        String path = url.substring(urlPrefix.length());
+        if (path.matches("v\\d+/.*")) path = path.substring(path.indexOf('/') + 1);
+        int dot = path.lastIndexOf('.');
+        return dot > 0 ? path.substring(0, dot) : path;
+    }
+}
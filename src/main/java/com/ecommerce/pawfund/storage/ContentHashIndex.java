@@ -0,0 +1,168 @@
+package com.ecommerce.pawfund.storage;
+
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.entity.ImageAsset;
+import com.ecommerce.pawfund.repository.ImageAssetRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chỉ mục SHA-256 nội dung ảnh -> ảnh đã lưu (bảng image_assets + LRU trong bộ nhớ).
+ * Shelter upload lại cùng một ảnh (cho pet khác, hoặc thử lại sau timeout) thì dùng lại URL cũ,
+ * không gọi mạng. Hash tính trên file gốc đã spool (ContentHashes).
+ */
+@Component
+public class ContentHashIndex {
+    private final ImageAssetRepository imageAssetRepository;
+    private final boolean enabled;
+    private final LinkedHashMap<String, StoredImage> recent;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public ContentHashIndex(ImageAssetRepository imageAssetRepository,
+                            @Value("${pawfund.upload.dedup.enabled:true}") boolean enabled,
+                            @Value("${pawfund.upload.dedup.cache-size:10000}") int cacheSize,
+                            MeterRegistry meterRegistry) {
+        this.imageAssetRepository = imageAssetRepository;
+        this.enabled = enabled;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredImage> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        FunctionCounter.builder("pawfund.upload.dedup.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.upload.dedup.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pawfund.upload.dedup.bytes_saved", bytesSaved, AtomicLong::get)
+            .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pawfund.upload.dedup.hit_ratio", this, ContentHashIndex::hitRatio).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String hash(Path file) throws IOException {
+        return ContentHashes.sha256Hex(file);
+    }
+
+    /**
+     * Tìm ảnh đã lưu cùng nội dung; sizeBytes là kích thước file đang upload, cộng vào bytes_saved khi trúng.
+     * Luôn dời last_used_at của dòng image_assets trước (kể cả khi LRU có sẵn): dòng đã bị worker xoá ảnh
+     * (trên instance này hay instance khác) thì không trả URL chết, còn dòng vừa dời thì worker chưa xoá.
+     */
+    public Optional<StoredImage> find(String contentHash, long sizeBytes) {
+        if (!enabled) return Optional.empty();
+        StoredImage image = null;
+        if (imageAssetRepository.touch(contentHash, LocalDateTime.now()) == 0) {
+            synchronized (recent) {
+                recent.remove(contentHash);
+            }
+        } else {
+            synchronized (recent) {
+                image = recent.get(contentHash);
+            }
+        }
+        if (image == null) {
+            image = imageAssetRepository.findById(contentHash).map(ContentHashIndex::toStoredImage).orElse(null);
+            if (image != null) {
+                synchronized (recent) {
+                    recent.put(contentHash, image);
+                }
+            }
+        }
+        if (image == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(sizeBytes);
+        return Optional.of(image);
+    }
+
+    public void record(String contentHash, StoredImage image, long sizeBytes) {
+        if (!enabled) return;
+        ImageAsset asset = new ImageAsset();
+        asset.setContentHash(contentHash);
+        asset.setUrl(image.url());
+        asset.setCardUrl(image.cardUrl());
+        asset.setThumbUrl(image.thumbUrl());
+        asset.setWidth(image.width());
+        asset.setHeight(image.height());
+        asset.setSizeBytes(sizeBytes);
+        asset.setCreatedAt(LocalDateTime.now());
+        asset.setLastUsedAt(asset.getCreatedAt());
+        try {
+            imageAssetRepository.save(asset);
+        } catch (DataIntegrityViolationException e) {
+            // Hai upload cùng nội dung chạy song song: giữ bản ghi đã có
+            return;
+        }
+        synchronized (recent) {
+            recent.put(contentHash, image);
+        }
+    }
+
+    /**
+     * Gọi trước khi xoá ảnh khỏi storage, để lần upload sau không trả URL chết. Dòng được dùng lại
+     * sau cutoff thì giữ: URL đó vừa được trả cho một upload và sắp gắn vào pet. Trả về các URL còn giữ,
+     * nơi gọi không được xoá chúng lần này.
+     */
+    public Set<String> forgetUrls(Collection<String> urls, LocalDateTime cutoff) {
+        Set<String> kept = new HashSet<>();
+        if (urls.isEmpty()) return kept;
+        synchronized (recent) {
+            recent.values().removeIf(image -> urls.contains(image.url())
+                || urls.contains(image.cardUrl()) || urls.contains(image.thumbUrl()));
+        }
+        imageAssetRepository.deleteUnusedByAnyUrlIn(urls, cutoff);
+        for (ImageAsset asset : imageAssetRepository.findByAnyUrlIn(urls)) {
+            kept.add(asset.getUrl());
+            kept.add(asset.getCardUrl());
+            kept.add(asset.getThumbUrl());
+        }
+        kept.retainAll(urls);
+        return kept;
+    }
+
+    // Ảnh đã bị xoá khỏi storage: bỏ mọi dòng còn trỏ tới (vd. ghi lại bởi upload chạy song song)
+    public void dropUrls(Collection<String> urls) {
+        if (urls.isEmpty()) return;
+        synchronized (recent) {
+            recent.values().removeIf(image -> urls.contains(image.url())
+                || urls.contains(image.cardUrl()) || urls.contains(image.thumbUrl()));
+        }
+        imageAssetRepository.deleteByAnyUrlIn(urls);
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static StoredImage toStoredImage(ImageAsset asset) {
+        return new StoredImage(asset.getUrl(),
+            asset.getCardUrl() != null ? asset.getCardUrl() : asset.getUrl(),
+            asset.getThumbUrl() != null ? asset.getThumbUrl() : asset.getUrl(),
+            asset.getWidth(), asset.getHeight(), asset.getContentHash());
+    }
+}
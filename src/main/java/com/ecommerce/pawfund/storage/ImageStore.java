@@ -0,0 +1,25 @@
+package com.ecommerce.pawfund.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Nơi lưu file ảnh. Chọn bằng pawfund.storage.type: cloudinary (mặc định) hoặc local.
+ * Upload song song, dedup, thu nhỏ ảnh nằm ở CloudinaryServiceImpl, phía trên SPI này.
+ */
+public interface ImageStore {
+
+    // Lưu file (file vẫn thuộc nơi gọi, không bị move/xoá), trả về URL công khai
+    String store(Path file) throws IOException;
+
+    // URL này có do store này tạo ra không; URL lạ (ảnh ngoài, store cũ) không được xoá
+    boolean owns(String url);
+
+    /**
+     * Xoá nhiều ảnh trong một lần gọi. Trả về các URL chắc chắn không còn nữa (đã xoá hoặc vốn không có),
+     * URL không nằm trong kết quả thì nơi gọi thử lại sau.
+     */
+    Set<String> deleteAll(List<String> urls) throws IOException;
+}
@@ -0,0 +1,264 @@
+package com.ecommerce.pawfund.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Node;
+
+/**
+ * Tạo các bản ảnh thu nhỏ (thumb/card/full) từ ảnh gốc bằng ImageIO: giải mã một lần, thu nhỏ dần
+ * từ bản lớn xuống bản nhỏ, ghi JPEG với quality riêng cho từng cỡ. Ảnh gốc (ảnh điện thoại tới 10MB)
+ * không được lưu; bản full đủ cho trang chi tiết, thẻ danh sách chỉ tải bản card.
+ */
+@Component
+public class ImageVariantGenerator {
+
+    public enum Size {
+        // Cạnh dài tối đa (px) và quality JPEG
+        FULL(1600, 0.85f),
+        CARD(640, 0.80f),
+        THUMB(240, 0.75f);
+
+        private final int maxEdge;
+        private final float quality;
+
+        Size(int maxEdge, float quality) {
+            this.maxEdge = maxEdge;
+            this.quality = quality;
+        }
+    }
+
+    public record Variant(Size size, Path path, int width, int height) { }
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+
+    private final boolean enabled;
+    private final UploadSpool uploadSpool;
+
+    public ImageVariantGenerator(@Value("${pawfund.image-variants.enabled:true}") boolean enabled,
+                                 UploadSpool uploadSpool) {
+        this.enabled = enabled;
+        this.uploadSpool = uploadSpool;
+    }
+
+    /**
+     * Trả danh sách rỗng khi tắt hoặc ImageIO không đọc được ảnh (HEIC, WebP, JPEG CMYK, file hỏng, ...):
+     * nơi gọi upload nguyên file gốc như trước. Các file tạo ra nằm trong spool, nơi gọi phải delete().
+     */
+    public Map<Size, Variant> generate(Path source) throws IOException {
+        Map<Size, Variant> variants = new EnumMap<>(Size.class);
+        if (!enabled) return variants;
+        Decoded decoded = read(source);
+        if (decoded == null) return variants;
+        BufferedImage image = decoded.image();
+
+        List<Path> written = new ArrayList<>();
+        try {
+            // Size theo thứ tự giảm dần: mỗi bản thu nhỏ từ bản vừa tạo, không phải từ ảnh gốc
+            // Xoay/lật theo EXIF trước khi thu nhỏ: bản JPEG ghi ra không mang EXIF nên ảnh điện thoại sẽ bị nằm ngang
+            BufferedImage current = orient(toRgb(image), decoded.orientation());
+            image = null;
+            for (Size size : Size.values()) {
+                current = scaleDown(current, size.maxEdge);
+                Path target = uploadSpool.newFile(".jpg");
+                written.add(target);
+                writeJpeg(current, target, size.quality);
+                variants.put(size, new Variant(size, target, current.getWidth(), current.getHeight()));
+            }
+            return variants;
+        } catch (IOException | RuntimeException e) {
+            written.forEach(uploadSpool::delete);
+            throw e;
+        }
+    }
+
+    // Ảnh đã giải mã và giá trị EXIF Orientation (1 = giữ nguyên)
+    private record Decoded(BufferedImage image, int orientation) { }
+
+    /**
+     * Ảnh lớn hơn nhiều so với bản FULL thì giải mã có subsampling (bỏ bớt điểm ảnh ngay lúc đọc):
+     * ảnh 4000x3000 chỉ chiếm ~12MB heap thay vì ~48MB, vẫn còn >= cạnh của FULL để thu nhỏ tiếp.
+     * null khi không có reader hoặc reader báo lỗi (JPEG CMYK/YCCK, file hỏng): nơi gọi upload file gốc.
+     */
+    private static Decoded read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                // cần metadata để đọc EXIF Orientation
+                reader.setInput(in, true, false);
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, longEdge / Size.FULL.maxEdge);
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                int orientation = exifOrientation(reader.getImageMetadata(0));
+                return new Decoded(reader.read(0, param), orientation);
+            } catch (IIOException e) {
+                System.err.println("Cannot decode " + source.getFileName() + ", uploading original: " + e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Tag Orientation (0x0112) trong IFD0 của segment APP1 "Exif". Chỉ reader JPEG của JDK đưa APP1
+     * ra metadata (nút "unknown", MarkerTag 225), định dạng khác trả về 1.
+     */
+    private static int exifOrientation(IIOMetadata metadata) {
+        if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) return 1;
+        Node root = metadata.getAsTree(JPEG_METADATA_FORMAT);
+        for (Node sequence = root.getFirstChild(); sequence != null; sequence = sequence.getNextSibling()) {
+            if (!"markerSequence".equals(sequence.getNodeName())) continue;
+            for (Node marker = sequence.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                if (!"unknown".equals(marker.getNodeName()) || !(marker instanceof IIOMetadataNode node)) continue;
+                if (!"225".equals(node.getAttribute("MarkerTag"))) continue;
+                if (node.getUserObject() instanceof byte[] data) {
+                    int orientation = parseOrientation(data);
+                    if (orientation != 0) return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // data = "Exif\0\0" + header TIFF (II/MM, 42, offset IFD0) + các entry 12 byte; 0 nếu không có tag
+    private static int parseOrientation(byte[] data) {
+        if (data.length < 14 || data[0] != 'E' || data[1] != 'x' || data[2] != 'i' || data[3] != 'f') return 0;
+        int tiff = 6;
+        boolean little = data[tiff] == 'I' && data[tiff + 1] == 'I';
+        if (!little && !(data[tiff] == 'M' && data[tiff + 1] == 'M')) return 0;
+        long ifd = tiff + readInt(data, tiff + 4, little);
+        if (ifd + 2 > data.length) return 0;
+        int entries = readShort(data, (int) ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > data.length) return 0;
+            if (readShort(data, entry, little) == 0x0112) {
+                int value = readShort(data, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean little) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return little ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long readInt(byte[] data, int offset, boolean little) {
+        long hi = readShort(data, offset + (little ? 2 : 0), little);
+        long lo = readShort(data, offset + (little ? 0 : 2), little);
+        return (hi << 16) | lo;
+    }
+
+    // Orientation 2-8: lật ngang, xoay 180, lật dọc, chuyển vị, xoay 90 thuận, chuyển vị ngược, xoay 90 ngược
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) return image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);
+        };
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    // JPEG không có kênh alpha: vẽ lên nền trắng thay vì để ImageIO ra màu sai
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // Giảm mỗi bước tối đa một nửa với bilinear: gần chất lượng area-averaging nhưng nhanh hơn nhiều
+    private static BufferedImage scaleDown(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = (double) maxEdge / Math.max(width, height);
+        if (scale >= 1) return image;
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        while (width != targetWidth || height != targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
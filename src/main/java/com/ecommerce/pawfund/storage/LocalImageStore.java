@@ -0,0 +1,105 @@
+package com.ecommerce.pawfund.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Lưu ảnh trên đĩa theo nội dung: tên file là SHA-256 + đuôi, nằm trong thư mục con 2 ký tự đầu của hash.
+ * Cùng nội dung thì cùng tên nên không ghi lại, file không bao giờ đổi nội dung (cache immutable được).
+ * Dùng cho môi trường tự host / test không có Cloudinary; ảnh được phục vụ qua GET /api/images/{name}.
+ */
+@Component
+@ConditionalOnProperty(name = "pawfund.storage.type", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,8}");
+    private static final String PATH_PREFIX = "/api/images/";
+    // Chỉ các đuôi ảnh này giữ nguyên khi lưu và được phục vụ inline; đuôi khác (.html, .svg, ...) thành .bin
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        ".jpg", "image/jpeg",
+        ".jpeg", "image/jpeg",
+        ".png", "image/png",
+        ".gif", "image/gif",
+        ".webp", "image/webp",
+        ".heic", "image/heic");
+
+    private final Path root;
+    private final String urlPrefix;
+
+    public LocalImageStore(@Value("${pawfund.storage.local.root:./data/images}") String root,
+                           @Value("${pawfund.storage.local.base-url:http://localhost:8888}") String baseUrl) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.urlPrefix = baseUrl.replaceAll("/+$", "") + PATH_PREFIX;
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public String store(Path file) throws IOException {
+        String name = ContentHashes.sha256Hex(file) + extension(file.getFileName().toString());
+        Path target = pathOf(name);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            // Chép ra file tạm cùng thư mục rồi đổi tên nguyên tử: không ai đọc được file ghi dở
+            Path temp = Files.createTempFile(target.getParent(), "store-", ".tmp");
+            try {
+                Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return urlPrefix + name;
+    }
+
+    @Override
+    public boolean owns(String url) {
+        return url != null && url.startsWith(urlPrefix) && NAME.matcher(url.substring(urlPrefix.length())).matches();
+    }
+
+    @Override
+    public Set<String> deleteAll(List<String> urls) throws IOException {
+        Set<String> gone = new HashSet<>();
+        for (String url : urls) {
+            if (!owns(url)) continue;
+            Files.deleteIfExists(pathOf(url.substring(urlPrefix.length())));
+            gone.add(url);
+        }
+        return gone;
+    }
+
+    // Chỉ nhận đúng dạng <sha256>.<đuôi>, không có đường dẫn lạ như ../
+    public Optional<Path> resolve(String name) {
+        if (name == null || !NAME.matcher(name).matches()) return Optional.empty();
+        Path path = pathOf(name);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // Content-Type theo danh sách cố định, null nếu đuôi không nằm trong danh sách (file .bin hoặc lưu trước khi có danh sách)
+    public static String contentTypeOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? CONTENT_TYPES.get(name.substring(dot)) : null;
+    }
+
+    private Path pathOf(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private static String extension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        String ext = dot >= 0 ? filename.substring(dot).toLowerCase(Locale.ROOT) : "";
+        return CONTENT_TYPES.containsKey(ext) ? ext : ".bin";
+    }
+}
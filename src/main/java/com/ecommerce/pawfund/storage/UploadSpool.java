@@ -0,0 +1,87 @@
+package com.ecommerce.pawfund.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Chuyển file multipart ra một file tạm riêng để upload từ đĩa, không đọc cả file vào heap (getBytes()).
+ * Multipart đã nằm trên đĩa (file-size-threshold), transferTo của Tomcat chỉ đổi tên file khi cùng filesystem.
+ * File tạm của request bị xoá khi request kết thúc, file spool thì sống tới khi gọi delete().
+ */
+@Component
+public class UploadSpool {
+    private final Path directory;
+
+    public UploadSpool(@Value("${pawfund.upload.spool-dir:}") String spoolDir) throws IOException {
+        this.directory = spoolDir == null || spoolDir.isBlank()
+            ? Paths.get(System.getProperty("java.io.tmpdir"), "pawfund-uploads")
+            : Paths.get(spoolDir);
+        Files.createDirectories(directory);
+        sweepStale();
+    }
+
+    public Path spool(MultipartFile file) throws IOException {
+        Path target = Files.createTempFile(directory, "upload-", suffix(file.getOriginalFilename()));
+        try {
+            // transferTo(File) không ghi đè được file đã tồn tại trên mọi container, xoá file rỗng trước
+            Files.delete(target);
+            file.transferTo(new File(target.toAbsolutePath().toString()));
+            return target;
+        } catch (IOException | RuntimeException e) {
+            delete(target);
+            throw e;
+        }
+    }
+
+    // File rỗng mới trong thư mục spool, vd. cho ảnh đã thu nhỏ
+    public Path newFile(String suffix) throws IOException {
+        return Files.createTempFile(directory, "variant-", suffix);
+    }
+
+    public void delete(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete spooled upload " + file + ": " + e.getMessage());
+        }
+    }
+
+    // File spool còn sót từ lần chạy trước (tắt máy giữa chừng, job bị huỷ) không còn job nào xoá nữa.
+    // Chỉ xoá file cũ hơn thời điểm JVM khởi động: thư mục spool là của riêng instance này
+    private void sweepStale() {
+        long startedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "{upload-,variant-}*")) {
+            for (Path file : files) {
+                try {
+                    if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() < startedAt) {
+                        Files.deleteIfExists(file);
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not delete stale spooled upload " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not sweep spool directory " + directory + ": " + e.getMessage());
+        }
+        if (deleted > 0) System.out.println("Deleted " + deleted + " stale spooled uploads from " + directory);
+    }
+
+    private static String suffix(String filename) {
+        if (filename == null) return ".tmp";
+        int dot = filename.lastIndexOf('.');
+        String ext = dot >= 0 ? filename.substring(dot) : "";
+        return ext.matches("\\.[A-Za-z0-9]{1,8}") ? ext : ".tmp";
+    }
+}
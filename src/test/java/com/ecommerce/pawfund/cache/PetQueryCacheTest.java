@@ -0,0 +1,79 @@
+package com.ecommerce.pawfund.cache;
+
+import com.ecommerce.pawfund.dto.PetResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PetQueryCacheTest {
+    private static final PetQueryKey AVAILABLE = PetQueryKey.of("AVAILABLE", null, null, null, null, null, null, null, 0, 20);
+    private static final PetQueryKey ADOPTED = PetQueryKey.of("ADOPTED", null, null, null, null, null, null, null, 0, 20);
+
+    private final PetQueryCache cache = new PetQueryCache(true, 100, new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void invalidateDropsOnlyAffectedEntries() {
+        cache.get(AVAILABLE, () -> page(1L, 2L));
+        cache.get(ADOPTED, () -> page(3L));
+        cache.get(AVAILABLE, () -> page(1L, 2L));
+        assertThat(loads.get()).isEqualTo(2);
+
+        // pet 9 chuyển sang AVAILABLE: trang AVAILABLE có thể đổi, trang ADOPTED thì không
+        cache.invalidate(snapshot(9L, "PENDING"), snapshot(9L, "AVAILABLE"));
+        cache.get(AVAILABLE, () -> page(1L, 2L, 9L));
+        cache.get(ADOPTED, () -> page(3L));
+        assertThat(loads.get()).isEqualTo(3);
+
+        // pet đang nằm trên trang thì trang bị xoá dù bộ lọc không khớp trạng thái mới
+        cache.invalidate(snapshot(3L, "ADOPTED"), snapshot(3L, "ADOPTED"));
+        cache.evict(2L);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void resultLoadedAcrossAnInvalidateIsNotCached() {
+        // commit của lần ghi (và invalidate sau commit) rơi vào giữa lúc trang đang được tính từ dòng cũ
+        cache.get(AVAILABLE, () -> {
+            Page<PetResponseDTO> stale = page(1L);
+            cache.invalidate(null, snapshot(2L, "AVAILABLE"));
+            return stale;
+        });
+        assertThat(cache.size()).isZero();
+
+        // lookup bắt đầu sau invalidate đọc dữ liệu đã commit và được cache
+        cache.get(AVAILABLE, () -> page(1L, 2L));
+        cache.get(AVAILABLE, () -> page(1L, 2L));
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThatThrownBy(() -> cache.get(AVAILABLE, () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(AVAILABLE, () -> page(1L)).getContent()).hasSize(1);
+    }
+
+    private Page<PetResponseDTO> page(Long... ids) {
+        loads.incrementAndGet();
+        return new PageImpl<>(Arrays.stream(ids).map(id -> {
+            PetResponseDTO dto = new PetResponseDTO();
+            dto.setId(id);
+            return dto;
+        }).toList());
+    }
+
+    private static PetSnapshot snapshot(Long id, String status) {
+        return new PetSnapshot(id, status, "MALE", 2, "Corgi", "Hà Nội", "Pet " + id, null, 1L);
+    }
+}
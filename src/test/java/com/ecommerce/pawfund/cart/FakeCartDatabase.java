@@ -0,0 +1,173 @@
+package com.ecommerce.pawfund.cart;
+
+import com.ecommerce.pawfund.entity.GuestCart;
+import com.ecommerce.pawfund.entity.GuestCartItem;
+import com.ecommerce.pawfund.repository.GuestCartItemRepository;
+import com.ecommerce.pawfund.repository.GuestCartRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * guest_carts, guest_cart_items và bảng cũ guest_cart_pet_ids trong bộ nhớ cho các test của cart.
+ * Chỉ cài các method/câu lệnh mà InMemoryGuestCartStore và LegacyCartItemMigration dùng, ghi lại các lần ghi.
+ */
+class FakeCartDatabase {
+    final Map<String, GuestCart> carts = new LinkedHashMap<>();
+    final Map<String, List<Long>> items = new LinkedHashMap<>();
+    // Bảng @ElementCollection cũ guest_cart_pet_ids: token -> pet theo thứ tự
+    final Map<String, List<Long>> legacyItems = new LinkedHashMap<>();
+    final List<String> calls = new ArrayList<>();
+    boolean failing;
+
+    void insert(String token, LocalDateTime updatedAt, Long... petIds) {
+        GuestCart cart = new GuestCart();
+        cart.setToken(token);
+        cart.setCreatedAt(updatedAt);
+        cart.setUpdatedAt(updatedAt);
+        carts.put(token, cart);
+        items.put(token, new ArrayList<>(List.of(petIds)));
+    }
+
+    // cart từ trước khi có guest_cart_items: item chỉ nằm trong bảng cũ
+    void insertLegacy(String token, LocalDateTime updatedAt, Long... petIds) {
+        insert(token, updatedAt);
+        legacyItems.put(token, new ArrayList<>(List.of(petIds)));
+    }
+
+    GuestCartRepository cartRepository() {
+        return proxy(GuestCartRepository.class, (name, args) -> switch (name) {
+            case "saveAll" -> {
+                write("saveAll");
+                List<GuestCart> saved = new ArrayList<>();
+                for (Object cart : (Iterable<?>) args[0]) saved.add((GuestCart) cart);
+                saved.forEach(cart -> carts.put(cart.getToken(), cart));
+                yield saved;
+            }
+            case "deleteAllById" -> {
+                write("deleteAllById");
+                for (Object token : (Iterable<?>) args[0]) carts.remove(token);
+                yield null;
+            }
+            case "deleteByUpdatedAtBefore" -> {
+                List<String> stale = staleTokens((LocalDateTime) args[0]);
+                stale.forEach(carts::remove);
+                yield (long) stale.size();
+            }
+            case "findUpdatedSince" -> carts.values().stream()
+                .filter(cart -> !cart.getUpdatedAt().isBefore((LocalDateTime) args[0])).toList();
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    GuestCartItemRepository itemRepository() {
+        return proxy(GuestCartItemRepository.class, (name, args) -> switch (name) {
+            case "addItem" -> {
+                write("addItem " + args[0] + " " + args[1]);
+                List<Long> petIds = items.computeIfAbsent((String) args[0], token -> new ArrayList<>());
+                if (petIds.contains((Long) args[1])) yield 0;
+                petIds.add((Long) args[1]);
+                yield 1;
+            }
+            case "retainOnly" -> {
+                write("retainOnly " + args[0] + " " + args[1]);
+                List<Long> petIds = items.getOrDefault((String) args[0], new ArrayList<>());
+                petIds.retainAll((Collection<?>) args[1]);
+                yield 0;
+            }
+            case "clear" -> {
+                write("clear " + args[0]);
+                items.put((String) args[0], new ArrayList<>());
+                yield 0;
+            }
+            case "clearAll" -> {
+                write("clearAll " + args[0]);
+                for (Object token : (Collection<?>) args[0]) items.remove(token);
+                yield 0;
+            }
+            case "deleteForCartsUpdatedBefore" -> {
+                List<String> stale = staleTokens((LocalDateTime) args[0]);
+                stale.forEach(items::remove);
+                yield stale.size();
+            }
+            case "findByTokens" -> {
+                List<GuestCartItem> found = new ArrayList<>();
+                for (Object token : (Collection<?>) args[0]) {
+                    for (Long petId : items.getOrDefault((String) token, List.of())) {
+                        GuestCartItem item = new GuestCartItem();
+                        item.setToken((String) token);
+                        item.setPetId(petId);
+                        found.add(item);
+                    }
+                }
+                yield found;
+            }
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    // Chỉ hiểu các câu của LegacyCartItemMigration; user_cart_pet_ids coi như không tồn tại (DB mới)
+    JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate() {
+            @Override
+            public void afterPropertiesSet() {
+                // không có DataSource thật
+            }
+
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                if (!sql.equals("SELECT COUNT(*) FROM guest_cart_pet_ids")) throw new IllegalStateException("no table: " + sql);
+                return requiredType.cast(legacyItems.values().stream().mapToInt(List::size).sum());
+            }
+
+            @Override
+            public int update(String sql) {
+                if (sql.startsWith("INSERT INTO guest_cart_items")) {
+                    int copied = 0;
+                    for (Map.Entry<String, List<Long>> legacy : legacyItems.entrySet()) {
+                        List<Long> petIds = items.computeIfAbsent(legacy.getKey(), token -> new ArrayList<>());
+                        for (Long petId : legacy.getValue()) {
+                            if (petIds.contains(petId)) continue;
+                            petIds.add(petId);
+                            copied++;
+                        }
+                    }
+                    return copied;
+                }
+                if (sql.equals("DELETE FROM guest_cart_pet_ids")) {
+                    int deleted = legacyItems.values().stream().mapToInt(List::size).sum();
+                    legacyItems.clear();
+                    return deleted;
+                }
+                throw new IllegalStateException("unexpected statement: " + sql);
+            }
+        };
+    }
+
+    private List<String> staleTokens(LocalDateTime cutoff) {
+        return carts.values().stream().filter(cart -> cart.getUpdatedAt().isBefore(cutoff))
+            .map(GuestCart::getToken).toList();
+    }
+
+    private void write(String call) {
+        if (failing) throw new IllegalStateException("database unavailable");
+        calls.add(call);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+            (proxy, method, args) -> method.getDeclaringClass() == Object.class
+                ? method.invoke(handler, args)
+                : handler.handle(method.getName(), args)));
+    }
+
+    private interface Handler {
+        Object handle(String name, Object[] args);
+    }
+}
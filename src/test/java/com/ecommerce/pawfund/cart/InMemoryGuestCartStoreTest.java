@@ -0,0 +1,125 @@
+package com.ecommerce.pawfund.cart;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write-behind và hết hạn của InMemoryGuestCartStore, với repository giả của FakeCartDatabase.
+ */
+class InMemoryGuestCartStoreTest {
+    private final FakeCartDatabase db = new FakeCartDatabase();
+
+    @Test
+    void flushWritesOnlyTheItemsThatChanged() {
+        InMemoryGuestCartStore store = newStore(72);
+        store.add("t1", 1L);
+        store.add("t1", 2L);
+        assertThat(db.items).isEmpty();
+
+        store.flush();
+        assertThat(db.carts).containsKey("t1");
+        assertThat(db.items.get("t1")).containsExactly(1L, 2L);
+
+        db.calls.clear();
+        store.remove("t1", 1L);
+        store.add("t1", 3L);
+        store.flush();
+        assertThat(db.items.get("t1")).containsExactly(2L, 3L);
+        assertThat(db.calls).containsExactly("saveAll", "retainOnly t1 [2, 3]", "addItem t1 3");
+
+        db.calls.clear();
+        store.add("t1", 4L);
+        store.flush();
+        assertThat(db.calls).containsExactly("saveAll", "addItem t1 4");
+    }
+
+    @Test
+    void flushWithoutChangesTouchesNothing() {
+        InMemoryGuestCartStore store = newStore(72);
+        store.add("t1", 1L);
+        store.flush();
+        db.calls.clear();
+
+        assertThat(store.find("t1")).contains(List.of(1L));
+        store.remove("t1", 99L);
+        store.flush();
+        assertThat(db.calls).isEmpty();
+    }
+
+    @Test
+    void emptiedCartClearsItemsAndTakenCartIsDeleted() {
+        InMemoryGuestCartStore store = newStore(72);
+        store.add("t1", 1L);
+        store.add("t2", 2L);
+        store.flush();
+
+        store.remove("t1", 1L);
+        assertThat(store.take("t2")).contains(List.of(2L));
+        db.calls.clear();
+        store.flush();
+
+        assertThat(db.calls).contains("clearAll [t2]", "clear t1");
+        assertThat(db.items.get("t1")).isEmpty();
+        assertThat(db.carts).containsKey("t1").doesNotContainKey("t2");
+        assertThat(db.items).doesNotContainKey("t2");
+        assertThat(store.find("t2")).isEmpty();
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        InMemoryGuestCartStore store = newStore(72);
+        store.add("t1", 1L);
+        db.failing = true;
+        store.flush();
+        assertThat(db.carts).isEmpty();
+
+        db.failing = false;
+        store.flush();
+        assertThat(db.items.get("t1")).containsExactly(1L);
+    }
+
+    @Test
+    void expiredCartsAreDroppedFromMemoryAndDatabase() throws InterruptedException {
+        // ttl 0: cart hết hạn ngay khi đồng hồ nhích qua lần truy cập cuối
+        InMemoryGuestCartStore store = newStore(0);
+        store.add("t1", 1L);
+        db.insert("t1", LocalDateTime.now(), 1L);
+        Thread.sleep(5);
+
+        store.flush();
+
+        assertThat(store.find("t1")).isEmpty();
+        assertThat(db.carts).doesNotContainKey("t1");
+        assertThat(db.items).doesNotContainKey("t1");
+    }
+
+    @Test
+    void loadRestoresLiveCartsAndPurgesExpiredOnes() {
+        db.insert("live", LocalDateTime.now().minusHours(1), 4L, 5L);
+        db.insert("stale", LocalDateTime.now().minusHours(100), 6L);
+        InMemoryGuestCartStore store = newStore(72);
+
+        store.load();
+
+        assertThat(store.find("live")).contains(List.of(4L, 5L));
+        assertThat(store.find("stale")).isEmpty();
+        assertThat(db.carts).doesNotContainKey("stale");
+        assertThat(db.items).doesNotContainKey("stale");
+
+        // item đã nạp được coi là đã ghi: chỉ chèn pet mới
+        db.calls.clear();
+        store.add("live", 7L);
+        store.flush();
+        assertThat(db.calls).containsExactly("saveAll", "addItem live 7");
+        assertThat(db.items.get("live")).containsExactly(4L, 5L, 7L);
+    }
+
+    private InMemoryGuestCartStore newStore(long ttlHours) {
+        return new InMemoryGuestCartStore(db.cartRepository(), db.itemRepository(), ttlHours, new SimpleMeterRegistry());
+    }
+}
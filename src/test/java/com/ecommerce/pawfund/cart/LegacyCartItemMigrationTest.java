@@ -0,0 +1,49 @@
+package com.ecommerce.pawfund.cart;
+
+import com.ecommerce.pawfund.repository.GuestCartItemRepository;
+import com.ecommerce.pawfund.repository.GuestCartRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thứ tự khởi động: cart cũ trong guest_cart_pet_ids phải được chuyển trước khi InMemoryGuestCartStore nạp.
+ */
+class LegacyCartItemMigrationTest {
+    private final FakeCartDatabase db = new FakeCartDatabase();
+
+    @Test
+    void legacyCartIsVisibleAfterStartup() {
+        db.insertLegacy("legacy", LocalDateTime.now().minusHours(1), 4L, 5L);
+        db.insert("current", LocalDateTime.now().minusHours(1), 6L);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            // store đăng ký trước: không có @DependsOn thì nó được tạo (và load()) trước migration
+            context.registerBean("entityManagerFactory", Object.class, Object::new);
+            context.registerBean(JdbcTemplate.class, db::jdbcTemplate);
+            context.registerBean(GuestCartRepository.class, db::cartRepository);
+            context.registerBean(GuestCartItemRepository.class, db::itemRepository);
+            context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+            context.register(InMemoryGuestCartStore.class, LegacyCartItemMigration.class);
+            context.refresh();
+
+            InMemoryGuestCartStore store = context.getBean(InMemoryGuestCartStore.class);
+            assertThat(db.legacyItems).isEmpty();
+            assertThat(store.find("legacy")).contains(List.of(4L, 5L));
+            assertThat(store.find("current")).contains(List.of(6L));
+
+            // item đã chuyển được coi là đã ghi: take + flush chỉ xoá cart đã lấy
+            assertThat(store.take("legacy")).contains(List.of(4L, 5L));
+            store.flush();
+            assertThat(db.items).doesNotContainKey("legacy");
+            assertThat(db.items.get("current")).containsExactly(6L);
+        }
+    }
+}
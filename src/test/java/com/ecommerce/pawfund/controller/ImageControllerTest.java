@@ -0,0 +1,46 @@
+package com.ecommerce.pawfund.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// parseRange: null = trả cả file (200), mảng rỗng = 416, còn lại {start, end} tính cả end
+class ImageControllerTest {
+    private static final long LENGTH = 1000;
+
+    @Test
+    void parsesSingleRanges() {
+        assertThat(ImageController.parseRange("bytes=0-99", LENGTH)).containsExactly(0, 99);
+        assertThat(ImageController.parseRange("bytes=500-", LENGTH)).containsExactly(500, 999);
+        assertThat(ImageController.parseRange("bytes=-100", LENGTH)).containsExactly(900, 999);
+        assertThat(ImageController.parseRange("bytes= 10 - 19 ", LENGTH)).containsExactly(10, 19);
+        assertThat(ImageController.parseRange("bytes=999-999", LENGTH)).containsExactly(999, 999);
+    }
+
+    @Test
+    void clampsRangesPastTheEnd() {
+        assertThat(ImageController.parseRange("bytes=900-5000", LENGTH)).containsExactly(900, 999);
+        assertThat(ImageController.parseRange("bytes=-5000", LENGTH)).containsExactly(0, 999);
+    }
+
+    @Test
+    void unsatisfiableRanges() {
+        assertThat(ImageController.parseRange("bytes=1000-", LENGTH)).isEmpty();
+        assertThat(ImageController.parseRange("bytes=1000-1099", LENGTH)).isEmpty();
+        assertThat(ImageController.parseRange("bytes=2000-1500", LENGTH)).isNull();
+        assertThat(ImageController.parseRange("bytes=-0", LENGTH)).isEmpty();
+        assertThat(ImageController.parseRange("bytes=0-", 0)).isEmpty();
+        assertThat(ImageController.parseRange("bytes=-10", 0)).isEmpty();
+    }
+
+    @Test
+    void ignoresMissingMalformedOrMultipleRanges() {
+        assertThat(ImageController.parseRange(null, LENGTH)).isNull();
+        assertThat(ImageController.parseRange("items=0-99", LENGTH)).isNull();
+        assertThat(ImageController.parseRange("bytes=0-9,20-29", LENGTH)).isNull();
+        assertThat(ImageController.parseRange("bytes=99-0", LENGTH)).isNull();
+        assertThat(ImageController.parseRange("bytes=-", LENGTH)).isNull();
+        assertThat(ImageController.parseRange("bytes=abc-", LENGTH)).isNull();
+        assertThat(ImageController.parseRange("bytes=10", LENGTH)).isNull();
+    }
+}
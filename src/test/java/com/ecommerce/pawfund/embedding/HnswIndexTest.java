@@ -0,0 +1,197 @@
+package com.ecommerce.pawfund.embedding;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * HnswIndex so với quét tuần tự trên vector ngẫu nhiên đã chuẩn hoá: recall, cập nhật/xoá key,
+ * lưu/đọc file và compact.
+ */
+class HnswIndexTest {
+    private static final int DIMENSIONS = 32;
+    private static final int COUNT = 2000;
+    private static final int K = 10;
+    private static final int EF = 100;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recallAgainstExactSearch() {
+        Random random = new Random(1);
+        List<float[]> vectors = randomVectors(random, COUNT);
+        HnswIndex index = build(vectors);
+
+        double recall = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random);
+            Set<Long> approximate = keysOf(index.search(query, K, EF, null));
+            recall += (double) intersection(approximate, exact(vectors, query, K)) / K;
+        }
+        assertThat(recall / 50).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void hitsAreSortedByScoreAndSkipExcludedKey() {
+        List<float[]> vectors = randomVectors(new Random(2), 200);
+        HnswIndex index = build(vectors);
+
+        List<HnswIndex.Hit> hits = index.search(vectors.get(5), K, EF, null);
+        assertThat(hits.get(0).key()).isEqualTo(5);
+        assertThat(hits.get(0).score()).isGreaterThan(0.999f);
+        for (int i = 1; i < hits.size(); i++) {
+            assertThat(hits.get(i).score()).isLessThanOrEqualTo(hits.get(i - 1).score());
+        }
+
+        List<HnswIndex.Hit> similar = index.search(vectors.get(5), K, EF, 5L);
+        assertThat(similar).hasSize(K);
+        assertThat(keysOf(similar)).doesNotContain(5L);
+    }
+
+    @Test
+    void updateAndRemoveReplaceOldNodes() {
+        Random random = new Random(3);
+        List<float[]> vectors = randomVectors(random, 200);
+        HnswIndex index = build(vectors);
+
+        float[] moved = randomVector(random);
+        index.add(7, moved, 77);
+        index.remove(8);
+        index.remove(9999);
+
+        assertThat(index.liveCount()).isEqualTo(199);
+        assertThat(index.deletedCount()).isEqualTo(2);
+        assertThat(index.contains(8)).isFalse();
+        assertThat(index.contentHash(7)).isEqualTo(77);
+        assertThat(index.vector(7)).isSameAs(moved);
+        assertThat(index.search(moved, 1, EF, null).get(0).key()).isEqualTo(7);
+        assertThat(keysOf(index.search(vectors.get(8), K, EF, null))).doesNotContain(8L);
+        assertThat(keysOf(index.search(vectors.get(7), 200, 400, null))).hasSize(199);
+    }
+
+    @Test
+    void rejectsVectorsOfWrongDimension() {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, EF);
+        assertThatThrownBy(() -> index.add(1, new float[DIMENSIONS + 1], 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void saveAndLoadKeepGraphAndDeletions() throws IOException {
+        Random random = new Random(4);
+        List<float[]> vectors = randomVectors(random, 500);
+        HnswIndex index = build(vectors);
+        index.remove(3);
+        Path file = tempDir.resolve("index/pets.hnsw");
+
+        index.save(file, "hash-v1");
+        HnswIndex loaded = HnswIndex.load(file, "hash-v1");
+
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.liveCount()).isEqualTo(499);
+        assertThat(loaded.deletedCount()).isEqualTo(1);
+        assertThat(loaded.contentHash(42)).isEqualTo(42);
+        assertThat(Files.exists(file.resolveSibling("pets.hnsw.tmp"))).isFalse();
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random);
+            assertThat(loaded.search(query, K, EF, null)).isEqualTo(index.search(query, K, EF, null));
+        }
+        // vẫn thêm được sau khi đọc
+        loaded.add(1000, vectors.get(3), 0);
+        assertThat(loaded.search(vectors.get(3), 1, EF, null).get(0).key()).isEqualTo(1000);
+    }
+
+    @Test
+    void loadIgnoresMissingOrForeignFiles() throws IOException {
+        Path file = tempDir.resolve("pets.hnsw");
+        assertThat(HnswIndex.load(file, "hash-v1")).isNull();
+
+        build(randomVectors(new Random(5), 10)).save(file, "hash-v1");
+        assertThat(HnswIndex.load(file, "openai-small")).isNull();
+
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        assertThat(HnswIndex.load(file, "hash-v1")).isNull();
+    }
+
+    @Test
+    void compactDropsDeletedNodes() {
+        Random random = new Random(6);
+        List<float[]> vectors = randomVectors(random, 300);
+        HnswIndex index = build(vectors);
+        for (long key = 0; key < 100; key++) index.remove(key);
+
+        HnswIndex compacted = index.compact();
+
+        assertThat(compacted.liveCount()).isEqualTo(200);
+        assertThat(compacted.deletedCount()).isZero();
+        assertThat(compacted.contains(50)).isFalse();
+        assertThat(compacted.contentHash(150)).isEqualTo(150);
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random);
+            Set<Long> expected = exact(vectors.subList(100, 300), query, K).stream()
+                .map(key -> key + 100).collect(Collectors.toSet());
+            assertThat(intersection(keysOf(compacted.search(query, K, EF, null)), expected)).isGreaterThanOrEqualTo(8);
+        }
+    }
+
+    // key = vị trí trong danh sách, content hash = key
+    private static HnswIndex build(List<float[]> vectors) {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, EF);
+        for (int i = 0; i < vectors.size(); i++) index.add(i, vectors.get(i), i);
+        return index;
+    }
+
+    private static Set<Long> exact(List<float[]> vectors, float[] query, int k) {
+        List<Long> keys = new ArrayList<>();
+        for (long i = 0; i < vectors.size(); i++) keys.add(i);
+        keys.sort(Comparator.comparingDouble(key -> -dot(vectors.get(key.intValue()), query)));
+        return new HashSet<>(keys.subList(0, k));
+    }
+
+    private static Set<Long> keysOf(List<HnswIndex.Hit> hits) {
+        return hits.stream().map(HnswIndex.Hit::key).collect(Collectors.toSet());
+    }
+
+    private static int intersection(Set<Long> a, Set<Long> b) {
+        Set<Long> common = new HashSet<>(a);
+        common.retainAll(b);
+        return common.size();
+    }
+
+    private static List<float[]> randomVectors(Random random, int count) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) vectors.add(randomVector(random));
+        return vectors;
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] v = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) v[i] /= (float) Math.sqrt(norm);
+        return v;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) dot += a[i] * b[i];
+        return dot;
+    }
+}
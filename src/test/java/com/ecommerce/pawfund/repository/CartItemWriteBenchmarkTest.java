@@ -0,0 +1,64 @@
+package com.ecommerce.pawfund.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Số câu SQL và số dòng ghi cho mỗi thao tác trên cart theo cỡ cart. @ElementCollection cũ xoá rồi ghi lại
+ * cả danh sách mỗi lần save (1 DELETE + n INSERT); bảng user_cart_items phải giữ đúng 1 câu, tối đa 1 dòng.
+ * Chạy: mvn test -Dpawfund.benchmark=true -Dtest=CartItemWriteBenchmarkTest
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("benchmark")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "pawfund.benchmark", matches = "true")
+class CartItemWriteBenchmarkTest {
+    private static final int[] CART_SIZES = { 5, 20, 50 };
+
+    @Autowired
+    private UserCartItemRepository userCartItemRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void eachCartWriteIsOneStatementRegardlessOfCartSize() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int size : CART_SIZES) {
+            long cartId = size;
+            for (long petId = 1; petId <= size; petId++) userCartItemRepository.addItem(cartId, petId);
+
+            long[] add = count(statistics, () -> userCartItemRepository.addItem(cartId, 1000L));
+            long[] duplicate = count(statistics, () -> userCartItemRepository.addItem(cartId, 1000L));
+            long[] remove = count(statistics, () -> userCartItemRepository.removeItem(cartId, 1L));
+            System.out.printf("cart=%2d  add: %d stmt/%d row  duplicate add: %d stmt/%d row  remove: %d stmt/%d row"
+                + "  (element collection rewrite: %d stmt)%n",
+                size, add[0], add[1], duplicate[0], duplicate[1], remove[0], remove[1], size + 2);
+
+            assertThat(add).containsExactly(1, 1);
+            assertThat(duplicate).containsExactly(1, 0);
+            assertThat(remove).containsExactly(1, 1);
+            assertThat(userCartItemRepository.findPetIds(cartId)).hasSize(size).contains(1000L).doesNotContain(1L);
+
+            long[] clear = count(statistics, () -> userCartItemRepository.clear(cartId));
+            assertThat(clear).containsExactly(1, size);
+        }
+    }
+
+    // {số câu SQL, số dòng bị ghi}
+    private static long[] count(Statistics statistics, LongSupplier write) {
+        statistics.clear();
+        long rows = write.getAsLong();
+        return new long[] { statistics.getPrepareStatementCount(), rows };
+    }
+}
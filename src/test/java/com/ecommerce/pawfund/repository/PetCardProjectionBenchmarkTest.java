@@ -0,0 +1,105 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.dto.PetCardView;
+import com.ecommerce.pawfund.entity.Pet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Một trang danh sách pet trước và sau khi dùng projection: trước là Page<Pet> (entity Pet + User shelter EAGER,
+ * kể cả password hash), sau là trang id + một câu SELECT chỉ gồm cột của PetResponseDTO/ShelterDTO.
+ * Đếm câu SQL và entity được tải (Hibernate Statistics), byte cấp phát trên thread cho mỗi trang.
+ * Chạy: mvn test -Dpawfund.benchmark=true -Dtest=PetCardProjectionBenchmarkTest
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("benchmark")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "pawfund.benchmark", matches = "true")
+class PetCardProjectionBenchmarkTest {
+    private static final int PETS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 30;
+    private static final int RUNS = 100;
+
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void projectionLoadsNoEntitiesAndAllocatesLessPerPage() {
+        new PetSeeder(jdbcTemplate).growTo(PETS);
+        Specification<Pet> spec = PetSpecifications.filter("AVAILABLE", null, null, null, null, null, null, null);
+
+        PageCost entities = measure("entities", page -> {
+            Page<Pet> pets = petRepository.findAll(spec, pageRequest(page));
+            for (Pet pet : pets) {
+                // như toPetResponseDTO cũ: đọc shelter để dựng ShelterDTO
+                if (pet.getShelter() != null) pet.getShelter().getFullName();
+            }
+        });
+        PageCost projection = measure("projection", page -> {
+            Page<Long> ids = petRepository.findIds(spec, pageRequest(page));
+            List<PetCardView> cards = petRepository.findCardsByIdIn(ids.getContent());
+            assertThat(cards).hasSize(PAGE_SIZE);
+        });
+
+        assertThat(projection.entitiesLoaded()).isZero();
+        assertThat(projection.statements()).isLessThan(entities.statements());
+        assertThat(projection.allocatedBytes()).isLessThan(entities.allocatedBytes());
+    }
+
+    private PageCost measure(String label, IntConsumer fetchPage) {
+        for (int i = 0; i < WARMUP; i++) {
+            fetchPage.accept(i % 10);
+            entityManager.clear();
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            fetchPage.accept(i % 10);
+            allocated += threads.getThreadAllocatedBytes(threadId) - before;
+            // mỗi trang là một request mới: không để persistence context giữ entity của trang trước
+            entityManager.clear();
+        }
+        PageCost cost = new PageCost((double) statistics.getPrepareStatementCount() / RUNS,
+            (double) statistics.getEntityLoadCount() / RUNS, allocated / RUNS);
+        System.out.printf("%-10s statements/page=%.1f  entities/page=%.1f  allocated/page=%,d B%n",
+            label, cost.statements(), cost.entitiesLoaded(), cost.allocatedBytes());
+        return cost;
+    }
+
+    private static Pageable pageRequest(int page) {
+        return PageRequest.of(page, PAGE_SIZE, Sort.by("id"));
+    }
+
+    private record PageCost(double statements, double entitiesLoaded, long allocatedBytes) { }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.dto.PetCardView;
+import com.ecommerce.pawfund.entity.Pet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thời gian một trang GET /api/pets theo đường DB (trang id với LIMIT/OFFSET + COUNT, rồi một câu SELECT thẻ pet)
+ * khi catalog tăng 1k -> 10k -> 50k pet. Đường cũ đọc cả bảng nên tăng tuyến tính; đường này phải gần như phẳng.
+ * Chạy: mvn test -Dpawfund.benchmark=true -Dtest=PetPageBenchmarkTest
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("benchmark")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "pawfund.benchmark", matches = "true")
+class PetPageBenchmarkTest {
+    private static final int[] SIZES = { 1_000, 10_000, 50_000 };
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 30;
+    private static final int RUNS = 100;
+
+    @Autowired
+    private PetRepository petRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pageLatencyStaysFlatAsCatalogGrows() {
+        PetSeeder seeder = new PetSeeder(jdbcTemplate);
+        Specification<Pet> spec = PetSpecifications.filter("AVAILABLE", null, null, null, null, 1, 12, null);
+        Map<Integer, Long> medians = new LinkedHashMap<>();
+        for (int size : SIZES) {
+            seeder.growTo(size);
+            long median = medianNanos(spec);
+            medians.put(size, median);
+            System.out.printf("pets=%,d  page median=%.2f ms%n", size, median / 1e6);
+        }
+        long small = medians.get(SIZES[0]);
+        long large = medians.get(SIZES[SIZES.length - 1]);
+        // 50 lần dữ liệu: cho phép COUNT tăng theo số dòng khớp nhưng không được gần tuyến tính như đọc cả bảng
+        assertThat(large).isLessThan(small * 10 + 5_000_000L);
+    }
+
+    private long medianNanos(Specification<Pet> spec) {
+        for (int i = 0; i < WARMUP; i++) fetchPage(spec, i % 10);
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            List<PetCardView> cards = fetchPage(spec, i % 10);
+            samples[i] = System.nanoTime() - start;
+            assertThat(cards).hasSize(PAGE_SIZE);
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+
+    // Giống PetServiceImpl: trang id theo bộ lọc trong DB, sau đó tải thẻ của đúng các id đó
+    private List<PetCardView> fetchPage(Specification<Pet> spec, int page) {
+        Page<Long> ids = petRepository.findIds(spec, PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+        assertThat(ids.getTotalElements()).isGreaterThan((long) PAGE_SIZE * 10);
+        return petRepository.findCardsByIdIn(ids.getContent());
+    }
+}
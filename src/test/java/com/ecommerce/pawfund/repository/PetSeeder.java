@@ -0,0 +1,70 @@
+package com.ecommerce.pawfund.repository;
+
+import com.ecommerce.pawfund.entity.Pet;
+import com.ecommerce.pawfund.entity.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dữ liệu giả cho các benchmark repository: shelter và pet chèn thẳng bằng JDBC theo lô.
+ * growTo gọi nhiều lần để tăng dần số pet (1k -> 10k -> 50k) mà không chèn lại từ đầu.
+ */
+class PetSeeder {
+    private static final int BATCH = 1000;
+    private static final int SHELTERS = 20;
+    private static final String[] BREEDS = { "Poodle", "Corgi", "Husky", "Phốc sóc", "Mèo Anh lông ngắn", "Mèo ta", "Chó ta", "Golden" };
+    private static final String[] LOCATIONS = { "Hà Nội", "Hồ Chí Minh", "Đà Nẵng", "Cần Thơ", "Hải Phòng", "Huế" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Long> shelterIds = new ArrayList<>();
+    private int count;
+
+    PetSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void growTo(int total) {
+        if (shelterIds.isEmpty()) seedShelters();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = count; i < total; i++) {
+            rows.add(new Object[] {
+                "Pet " + i, i % 15, BREEDS[i % BREEDS.length],
+                "Bé số " + i + ", hiền, đã quen người", LOCATIONS[(i / 7) % LOCATIONS.length],
+                Pet.Status.values()[i % Pet.Status.values().length].name(),
+                Pet.Gender.values()[i % 2].name(), i % 2 == 0, i % 3 == 0,
+                shelterIds.get(i % shelterIds.size()), 1L, now
+            });
+            if (rows.size() == BATCH) {
+                insertPets(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) insertPets(rows);
+        count = Math.max(count, total);
+    }
+
+    private void insertPets(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO pets (name, age, breed, description, location, status, gender, " +
+            "vaccinated, dewormed, shelter_id, version, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private void seedShelters() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < SHELTERS; i++) {
+            rows.add(new Object[] {
+                "shelter" + i, "$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbench",
+                "shelter" + i + "@pawfund.test", "Trạm cứu hộ " + i, "090000000" + (i % 10),
+                LOCATIONS[i % LOCATIONS.length], true, User.Role.SHELTER.ordinal()
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, email, full_name, phone, address, enabled, role) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        shelterIds.addAll(jdbcTemplate.queryForList("SELECT id FROM users WHERE role = ? ORDER BY id", Long.class,
+            User.Role.SHELTER.ordinal()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.pawfund.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So CompressedBitmap với TreeSet trên các tập trải qua cả hai loại container:
+ * mảng (<= 4096 phần tử trong một khối 65536) và bitmap, kể cả lúc đổi qua lại giữa hai loại.
+ */
+class CompressedBitmapTest {
+    private static final int DENSE = 5000;
+
+    @Test
+    void addRemoveContainsAcrossContainers() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(3);
+        bitmap.add(70_000);
+        bitmap.add(3);
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+        assertThat(bitmap.contains(3)).isTrue();
+        assertThat(bitmap.contains(70_000)).isTrue();
+        assertThat(bitmap.contains(4)).isFalse();
+
+        bitmap.remove(3);
+        bitmap.remove(12345);
+        assertThat(bitmap.toArray()).containsExactly(70_000);
+        bitmap.remove(70_000);
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void arrayContainerTurnsIntoBitmapAndBack() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 4096; i++) bitmap.add(i * 2);
+
+        bitmap.add(1);
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(8190)).isTrue();
+
+        bitmap.remove(1);
+        bitmap.remove(0);
+        assertThat(bitmap.cardinality()).isEqualTo(4095);
+        assertThat(bitmap.contains(1)).isFalse();
+        assertThat(bitmap.toArray()).startsWith(2, 4, 6).endsWith(8190);
+    }
+
+    @Test
+    void setOperationsMatchTreeSet() {
+        Random random = new Random(42);
+        // thưa/thưa, dày/thưa, dày/dày; có khối chỉ một bên có
+        int[][] shapes = { { 300, 300 }, { DENSE, 300 }, { DENSE, DENSE }, { 0, DENSE } };
+        for (int[] shape : shapes) {
+            TreeSet<Integer> left = randomSet(random, shape[0]);
+            TreeSet<Integer> right = randomSet(random, shape[1]);
+            CompressedBitmap a = CompressedBitmap.of(left);
+            CompressedBitmap b = CompressedBitmap.of(right);
+
+            TreeSet<Integer> and = new TreeSet<>(left);
+            and.retainAll(right);
+            TreeSet<Integer> or = new TreeSet<>(left);
+            or.addAll(right);
+            TreeSet<Integer> andNot = new TreeSet<>(left);
+            andNot.removeAll(right);
+
+            assertThat(a.and(b).toArray()).containsExactly(toArray(and));
+            assertThat(b.and(a).toArray()).containsExactly(toArray(and));
+            assertThat(a.or(b).toArray()).containsExactly(toArray(or));
+            assertThat(b.or(a).cardinality()).isEqualTo(or.size());
+            assertThat(a.andNot(b).toArray()).containsExactly(toArray(andNot));
+            // phép toán không được sửa toán hạng
+            assertThat(a.toArray()).containsExactly(toArray(left));
+            assertThat(b.toArray()).containsExactly(toArray(right));
+        }
+    }
+
+    @Test
+    void andNotOfDenseContainersFallsBackToArray() {
+        CompressedBitmap all = new CompressedBitmap();
+        CompressedBitmap most = new CompressedBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            all.add(i);
+            if (i >= 10) most.add(i);
+        }
+        CompressedBitmap rest = all.andNot(most);
+        assertThat(rest.toArray()).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(rest.sizeInBytes()).isLessThan(8192);
+    }
+
+    @Test
+    void rangeSkipsWholeContainersAndCutsPages() {
+        TreeSet<Integer> values = randomSet(new Random(7), DENSE);
+        CompressedBitmap bitmap = CompressedBitmap.of(values);
+        int[] expected = toArray(values);
+
+        for (int offset : new int[] { 0, 1, 4095, 4096, 9000, expected.length - 3 }) {
+            int[] page = bitmap.range(offset, 20);
+            int end = Math.min(expected.length, offset + 20);
+            assertThat(page).containsExactly(Arrays.copyOfRange(expected, offset, end));
+        }
+        assertThat(bitmap.range(expected.length, 20)).isEmpty();
+        assertThat(bitmap.range(expected.length + 100L, 20)).isEmpty();
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompressedBitmap original = CompressedBitmap.of(List.of(1, 2, 3));
+        CompressedBitmap copy = original.copy();
+        copy.add(4);
+        copy.remove(1);
+        assertThat(original.toArray()).containsExactly(1, 2, 3);
+        assertThat(copy.toArray()).containsExactly(2, 3, 4);
+    }
+
+    // perBlock phần tử ngẫu nhiên trong mỗi khối 0, 2 và 3 (khối 1 để trống)
+    private static TreeSet<Integer> randomSet(Random random, int perBlock) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (int block : new int[] { 0, 2, 3 }) {
+            int added = 0;
+            while (added < perBlock) {
+                if (set.add((block << 16) | random.nextInt(1 << 16))) added++;
+            }
+        }
+        return set;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.pawfund.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void suggestsByCountIgnoringAccentsAndCase() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Hà Nội", 12);
+        trie.add("Hải Phòng", 5);
+        trie.add("Hà Giang", 2);
+        trie.add("Huế", 30);
+        trie.add("Hồ Chí Minh", 20);
+
+        assertThat(trie.suggest("ha", 10)).containsExactly(
+            new Suggestion("Hà Nội", 12), new Suggestion("Hải Phòng", 5), new Suggestion("Hà Giang", 2));
+        assertThat(trie.suggest("HÀ  N", 10)).containsExactly(new Suggestion("Hà Nội", 12));
+        assertThat(trie.suggest("h", 2)).containsExactly(new Suggestion("Huế", 30), new Suggestion("Hồ Chí Minh", 20));
+        assertThat(trie.suggest("", 1)).containsExactly(new Suggestion("Huế", 30));
+        assertThat(trie.suggest("da nang", 10)).isEmpty();
+        assertThat(trie.suggest("h", 0)).isEmpty();
+    }
+
+    @Test
+    void valueThatIsPrefixOfAnotherIsSuggestedToo() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Mèo", 3);
+        trie.add("Mèo Anh lông ngắn", 7);
+        trie.add("Mèo ta", 1);
+
+        assertThat(trie.suggest("meo", 10)).containsExactly(
+            new Suggestion("Mèo Anh lông ngắn", 7), new Suggestion("Mèo", 3), new Suggestion("Mèo ta", 1));
+    }
+
+    @Test
+    void negativeDeltasDecrementAndPruneValues() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Corgi", 2);
+        trie.add("Corgi Pembroke", 1);
+        assertThat(trie.size()).isEqualTo(2);
+
+        trie.add("corgi", -1);
+        assertThat(trie.suggest("cor", 10)).containsExactlyInAnyOrder(
+            new Suggestion("Corgi", 1), new Suggestion("Corgi Pembroke", 1));
+
+        trie.add("Corgi Pembroke", -5);
+        trie.add("Husky", -1);
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.suggest("corgi p", 10)).isEmpty();
+        assertThat(trie.suggest("hu", 10)).isEmpty();
+
+        trie.add("Corgi", -1);
+        assertThat(trie.size()).isZero();
+        assertThat(trie.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    void keepsFirstSpellingUntilValueDisappears() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("  Phốc sóc ", 1);
+        trie.add("phoc soc", 1);
+        assertThat(trie.suggest("phoc", 10)).containsExactly(new Suggestion("Phốc sóc", 2));
+
+        trie.add("Phốc sóc", -2);
+        trie.add("Phốc Sóc", 1);
+        assertThat(trie.suggest("phoc", 10)).containsExactly(new Suggestion("Phốc Sóc", 1));
+    }
+
+    @Test
+    void ignoresBlankValues() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add(null, 1);
+        trie.add("  ", 1);
+        trie.add("Golden", 0);
+        assertThat(trie.size()).isZero();
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Poodle", 4);
+        trie.clear();
+        assertThat(trie.size()).isZero();
+        assertThat(trie.suggest("p", 10)).isEmpty();
+
+        trie.add("Poodle", 1);
+        assertThat(trie.suggest("p", 10)).containsExactly(new Suggestion("Poodle", 1));
+    }
+
+    @Test
+    void topSuggestionsMatchSortedScan() {
+        Random random = new Random(11);
+        SuggestionTrie trie = new SuggestionTrie();
+        Map<String, Integer> counts = new HashMap<>();
+        // số đếm phân biệt để thứ tự kỳ vọng là duy nhất
+        for (int i = 0; i < 500; i++) {
+            String value = "breed" + random.nextInt(100_000);
+            if (counts.putIfAbsent(value, i + 1) == null) trie.add(value, i + 1);
+        }
+        for (String prefix : new String[] { "", "breed", "breed1", "breed42" }) {
+            List<Suggestion> expected = new ArrayList<>();
+            counts.forEach((value, count) -> {
+                if (value.startsWith(prefix)) expected.add(new Suggestion(value, count));
+            });
+            expected.sort(Comparator.comparingInt(Suggestion::count).reversed());
+            assertThat(trie.suggest(prefix, 8)).containsExactlyElementsOf(expected.subList(0, Math.min(8, expected.size())));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.pawfund.service.imple;
+
+import com.ecommerce.pawfund.dto.UploadResult;
+import com.ecommerce.pawfund.storage.CloudinaryImageStore;
+import com.ecommerce.pawfund.storage.ContentHashIndex;
+import com.ecommerce.pawfund.storage.ImageVariantGenerator;
+import com.ecommerce.pawfund.storage.UploadSpool;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upload song song có giới hạn, chạy với một HTTP server giả thay cho API upload của Cloudinary:
+ * mỗi request chờ LATENCY_MS rồi trả secure_url, file có nội dung FAIL_MARKER thì trả lỗi 400.
+ */
+class CloudinaryServiceImplTest {
+    private static final long LATENCY_MS = 100;
+    private static final String FAIL_MARKER = "FAIL-ME";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger served = new AtomicInteger();
+
+    @BeforeEach
+    void startFakeCloudinary() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleUpload);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopFakeCloudinary() {
+        server.stop(0);
+    }
+
+    @Test
+    void uploadsInParallelWithinLimitsAndKeepsOrder() throws IOException {
+        CloudinaryServiceImpl service = newService(8, 4);
+        List<Path> files = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            files.add(write("photo" + i + ".jpg", i == 6 ? FAIL_MARKER : "image-" + i));
+            names.add("photo" + i + ".jpg");
+        }
+        List<UploadResult> streamed = new ArrayList<>();
+
+        List<UploadResult> results = service.uploadAllPaths(files, names, streamed::add);
+
+        assertThat(results).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            UploadResult result = results.get(i);
+            assertThat(result.index()).isEqualTo(i);
+            assertThat(result.filename()).isEqualTo("photo" + i + ".jpg");
+            assertThat(result.isSuccess()).isEqualTo(i != 6);
+        }
+        assertThat(results.get(6).error()).contains("Invalid image file");
+        assertThat(results.get(0).url()).startsWith("https://res.cloudinary.com/demo/image/upload/");
+        assertThat(streamed).containsExactlyElementsOf(results);
+        // một request không được dùng quá per-request upload cùng lúc
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(4);
+        assertThat(maxInFlight.get()).isGreaterThan(1);
+        service.shutdown();
+    }
+
+    // Chạy: mvn test -Dpawfund.benchmark=true -Dtest=CloudinaryServiceImplTest
+    @Test
+    @EnabledIfSystemProperty(named = "pawfund.benchmark", matches = "true")
+    void parallelUploadThroughputBenchmark() throws IOException {
+        int count = 40;
+        List<Path> files = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(write("bench" + i + ".jpg", "bench-" + i));
+            names.add("bench" + i + ".jpg");
+        }
+        double sequential = throughput(newService(1, 1), files, names);
+        double parallel = throughput(newService(4, 4), files, names);
+        System.out.printf("%d uploads at %d ms latency: sequential %.1f files/s, parallel %.1f files/s%n",
+            count, LATENCY_MS, sequential, parallel);
+        // HTTP client của SDK cũng giới hạn số kết nối mỗi host, nên chỉ đòi hỏi nhanh hơn rõ rệt, không đúng 4 lần
+        assertThat(parallel).isGreaterThan(sequential * 1.5);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(4);
+    }
+
+    private double throughput(CloudinaryServiceImpl service, List<Path> files, List<String> names) {
+        long start = System.nanoTime();
+        List<UploadResult> results = service.uploadAllPaths(files, names, result -> { });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        service.shutdown();
+        assertThat(results).allMatch(UploadResult::isSuccess);
+        return files.size() / seconds;
+    }
+
+    private CloudinaryServiceImpl newService(int maxConcurrent, int perRequest) throws IOException {
+        CloudinaryImageStore store = new CloudinaryImageStore("demo", "key", "secret",
+            "http://127.0.0.1:" + server.getAddress().getPort());
+        UploadSpool spool = new UploadSpool(tempDir.resolve("spool").toString());
+        // không thu nhỏ ảnh và không dedup: mỗi file đúng một request tới server giả
+        ImageVariantGenerator variants = new ImageVariantGenerator(false, spool);
+        ContentHashIndex contentHashIndex = new ContentHashIndex(null, false, 10, new SimpleMeterRegistry());
+        return new CloudinaryServiceImpl(store, maxConcurrent, perRequest, spool, variants, contentHashIndex);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private void handleUpload(HttpExchange exchange) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+            Thread.sleep(LATENCY_MS);
+            int n = served.incrementAndGet();
+            boolean fail = body.contains(FAIL_MARKER);
+            String json = fail
+                ? "{\"error\":{\"message\":\"Invalid image file\"}}"
+                : "{\"public_id\":\"pawfund/img" + n + "\",\"secure_url\":\"https://res.cloudinary.com/demo/image/upload/v1/pawfund/img" + n + ".jpg\"}";
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 400 : 200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.pawfund.service.imple;
+
+import com.ecommerce.pawfund.cache.CatalogVersion;
+import com.ecommerce.pawfund.cache.PetCardCache;
+import com.ecommerce.pawfund.cache.PetQueryCache;
+import com.ecommerce.pawfund.dto.StoredImage;
+import com.ecommerce.pawfund.service.inter.IImageDeletionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vị trí ảnh khi nhiều worker job ảnh cùng thêm ảnh cho một pet, trên H2 (profile benchmark).
+ * Mỗi lần addAll chạy trong transaction riêng như ImageJobServiceImpl, không bọc trong transaction của test.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("benchmark")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ PetImageServiceImpl.class, CatalogVersion.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PetImageServiceImplTest {
+    private static final int WORKERS = 4;
+    private static final int JOBS_PER_WORKER = 10;
+    private static final int IMAGES_PER_JOB = 3;
+
+    @Autowired
+    private PetImageServiceImpl petImageService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoBean
+    private PetQueryCache petQueryCache;
+    @MockitoBean
+    private PetCardCache petCardCache;
+    @MockitoBean
+    private IImageDeletionService imageDeletionService;
+
+    @Test
+    void concurrentJobsForOnePetGetDistinctPositions() throws Exception {
+        jdbcTemplate.update("INSERT INTO pets (name, status, version) VALUES ('Mực', 'AVAILABLE', 0)");
+        Long petId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM pets", Long.class);
+
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        try {
+            for (int w = 0; w < WORKERS; w++) {
+                int worker = w;
+                done.add(workers.submit(() -> {
+                    start.await();
+                    for (int job = 0; job < JOBS_PER_WORKER; job++) {
+                        List<StoredImage> images = new ArrayList<>();
+                        for (int i = 0; i < IMAGES_PER_JOB; i++) {
+                            images.add(StoredImage.original("https://img.test/" + worker + "-" + job + "-" + i + ".jpg"));
+                        }
+                        petImageService.addAll(petId, images);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) f.get();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        int total = WORKERS * JOBS_PER_WORKER * IMAGES_PER_JOB;
+        List<Integer> positions = jdbcTemplate.queryForList(
+            "SELECT position FROM pet_images WHERE pet_id = ? ORDER BY position", Integer.class, petId);
+        assertThat(positions).hasSize(total).doesNotHaveDuplicates();
+        assertThat(positions.get(0)).isZero();
+        assertThat(positions.get(total - 1)).isEqualTo(total - 1);
+    }
+}